@@ -0,0 +1,67 @@
+package com.haw.srs.customerservice;
+
+import com.haw.srs.customerservice.Repo.CourseRepository;
+import com.haw.srs.customerservice.Repo.CustomerRepository;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Boots the application against the in-memory H2 database of the testing profile and seeds it for benchmarks.
+ */
+final class BenchmarkContext {
+
+    private static final int SEED_CHUNK = 1000;
+
+    private BenchmarkContext() {
+    }
+
+    /**
+     * @param properties overrides in {@code key=value} form, passed as command line arguments so that they take
+     *                   precedence over application.yml
+     */
+    static ConfigurableApplicationContext start(String... properties) {
+        String[] args = Stream.concat(
+                        // the outbox poller would otherwise compete with the measured code for connections
+                        Stream.of("customerservice.mail.outbox.poll-interval=PT1H"),
+                        Stream.of(properties))
+                .map(property -> "--" + property)
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.NONE)
+                .run(args);
+    }
+
+    static List<Long> seedCustomers(ConfigurableApplicationContext context, int count) {
+        CustomerRepository customerRepository = context.getBean(CustomerRepository.class);
+        List<Long> ids = new ArrayList<>(count);
+        List<Customer> chunk = new ArrayList<>(SEED_CHUNK);
+        for (int i = 0; i < count; i++) {
+            chunk.add(new Customer("First" + i, "Last" + i, Gender.values()[i % Gender.values().length],
+                    "customer" + i + "@dummy.org", new PhoneNumber("+49", "040", String.format("%08d", i))));
+            if (chunk.size() == SEED_CHUNK || i == count - 1) {
+                customerRepository.saveAll(chunk).forEach(customer -> ids.add(customer.getId()));
+                chunk.clear();
+            }
+        }
+        return ids;
+    }
+
+    static List<Long> seedCourses(ConfigurableApplicationContext context, int count) {
+        CourseRepository courseRepository = context.getBean(CourseRepository.class);
+        List<Long> ids = new ArrayList<>(count);
+        List<Course> chunk = new ArrayList<>(SEED_CHUNK);
+        for (int i = 0; i < count; i++) {
+            chunk.add(new Course("Course" + i));
+            if (chunk.size() == SEED_CHUNK || i == count - 1) {
+                courseRepository.saveAll(chunk).forEach(course -> ids.add(course.getId()));
+                chunk.clear();
+            }
+        }
+        return ids;
+    }
+}
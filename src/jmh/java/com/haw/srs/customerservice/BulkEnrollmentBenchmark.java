@@ -0,0 +1,66 @@
+package com.haw.srs.customerservice;
+
+import com.haw.srs.customerservice.Exception.CourseNotFoundException;
+import com.haw.srs.customerservice.Exception.CustomerNotFoundException;
+import com.haw.srs.customerservice.Repo.CourseRepository;
+import com.haw.srs.customerservice.Service.BulkEnrollmentResult;
+import com.haw.srs.customerservice.Service.CourseService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Enrolls a cohort into a fresh course, once customer by customer through enrollInCourse and once through
+ * enrollAllInCourse. Each operation enrolls {@code cohort} customers, so throughput is cohort / score.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class BulkEnrollmentBenchmark {
+
+    @Param({"1000", "5000"})
+    public int cohort;
+
+    private ConfigurableApplicationContext context;
+    private CourseService courseService;
+    private CourseRepository courseRepository;
+    private List<String> lastNames;
+    private Course course;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seedCustomers(context, cohort);
+        courseService = context.getBean(CourseService.class);
+        courseRepository = context.getBean(CourseRepository.class);
+        lastNames = IntStream.range(0, cohort).mapToObj(i -> "Last" + i).toList();
+    }
+
+    @Setup(Level.Invocation)
+    public void newCourse() {
+        course = courseRepository.save(new Course("Semester start"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void enrollOneByOne() throws CustomerNotFoundException {
+        for (String lastName : lastNames) {
+            courseService.enrollInCourse(lastName, course);
+        }
+    }
+
+    @Benchmark
+    public BulkEnrollmentResult enrollInBulk() throws CourseNotFoundException {
+        return courseService.enrollAllInCourse(course.getId(), List.of(), lastNames);
+    }
+}
@@ -0,0 +1,73 @@
+package com.haw.srs.customerservice;
+
+import com.haw.srs.customerservice.Exception.CourseNotFoundException;
+import com.haw.srs.customerservice.Facade.CourseFacade;
+import com.haw.srs.customerservice.Repo.CourseRepository;
+import com.haw.srs.customerservice.Repo.CourseView;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Course read paths with and without the second-level/query cache, run by several threads. SampleTime reports the
+ * latency percentiles (p0.99); the database round trips per operation are printed at the end of each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Threads(8)
+@Fork(1)
+public class CourseReadBenchmark {
+
+    private static final int COURSES = 1000;
+
+    @Param({"true", "false"})
+    public boolean cached;
+
+    private ConfigurableApplicationContext context;
+    private CourseFacade courseFacade;
+    private CourseRepository courseRepository;
+    private Statistics statistics;
+    private List<Long> courseIds;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=" + cached,
+                "spring.jpa.properties.hibernate.cache.use_query_cache=" + cached);
+        courseFacade = context.getBean(CourseFacade.class);
+        courseRepository = context.getBean(CourseRepository.class);
+        courseIds = BenchmarkContext.seedCourses(context, COURSES);
+
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.printf("%ncached=%s: %d statements, %d second-level cache hits, %d misses%n", cached,
+                statistics.getPrepareStatementCount(), statistics.getSecondLevelCacheHitCount(),
+                statistics.getSecondLevelCacheMissCount());
+        context.close();
+    }
+
+    @Benchmark
+    public ResponseEntity<CourseView> getCourseById() throws CourseNotFoundException {
+        return courseFacade.getCourseById(courseIds.get(ThreadLocalRandom.current().nextInt(COURSES)));
+    }
+
+    @Benchmark
+    public Optional<Course> findCourseByName() {
+        return courseRepository.findCourseByName("Course" + ThreadLocalRandom.current().nextInt(COURSES));
+    }
+}
@@ -0,0 +1,121 @@
+package com.haw.srs.customerservice;
+
+import com.haw.srs.customerservice.Repo.CustomerRepository;
+import com.haw.srs.customerservice.Service.CustomerExportService;
+import com.haw.srs.customerservice.Service.FileFormat;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One full export of {@code joinRows} memberships ({@value #COURSES_PER_CUSTOMER} courses per customer) from the JDBC
+ * cursor as CSV and NDJSON, compared with reading the same data as entity pages like a client of
+ * {@code GET /customers} does. Add {@code -prof gc} to see the allocation per export.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class CustomerExportBenchmark {
+
+    private static final int COURSES = 100;
+    private static final int COURSES_PER_CUSTOMER = 10;
+    private static final int BATCH = 10_000;
+    // far above the ids handed out by hibernate
+    private static final long FIRST_ID = 1_000_000_000L;
+    private static final Pageable PAGE = PageRequest.ofSize(1000);
+
+    @Param({"10000000"})
+    public int joinRows;
+
+    private ConfigurableApplicationContext context;
+    private CustomerExportService customerExportService;
+    private CustomerRepository customerRepository;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        customerExportService = context.getBean(CustomerExportService.class);
+        customerRepository = context.getBean(CustomerRepository.class);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        List<Object[]> rows = new ArrayList<>(BATCH);
+        for (int i = 0; i < COURSES; i++) {
+            rows.add(new Object[]{FIRST_ID + i, "Export Course " + i});
+        }
+        jdbcTemplate.batchUpdate("insert into course (id, name) values (?, ?)", rows);
+        rows.clear();
+
+        int customers = joinRows / COURSES_PER_CUSTOMER;
+        for (int i = 0; i < customers; i++) {
+            rows.add(new Object[]{FIRST_ID + i, "First" + i, "Last" + i, "FEMALE", "customer" + i + "@dummy.org"});
+            if (rows.size() == BATCH || i == customers - 1) {
+                jdbcTemplate.batchUpdate("insert into customer (id, first_name, last_name, gender, email) values (?, ?, ?, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+        for (int i = 0; i < customers; i++) {
+            for (int j = 0; j < COURSES_PER_CUSTOMER; j++) {
+                rows.add(new Object[]{FIRST_ID + i, FIRST_ID + (i + j) % COURSES});
+            }
+            if (rows.size() >= BATCH || i == customers - 1) {
+                jdbcTemplate.batchUpdate("insert into customer_courses (customer_id, course_id) values (?, ?)", rows);
+                rows.clear();
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long exportCsv() throws IOException {
+        return customerExportService.export(new CountingOutputStream(), FileFormat.CSV);
+    }
+
+    @Benchmark
+    public long exportNdjson() throws IOException {
+        return customerExportService.export(new CountingOutputStream(), FileFormat.NDJSON);
+    }
+
+    @Benchmark
+    public long entityPages() {
+        long memberships = 0;
+        List<Customer> page = customerRepository.findPageAfter(0L, PAGE);
+        while (!page.isEmpty()) {
+            for (Customer customer : page) {
+                memberships += customer.getCourses().size();
+            }
+            page = customerRepository.findPageAfter(page.get(page.size() - 1).getId(), PAGE);
+        }
+        return memberships;
+    }
+
+    // stands in for the response, the bytes are only counted
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.haw.srs.customerservice;
+
+import com.haw.srs.customerservice.Facade.CustomerFacade;
+import com.haw.srs.customerservice.Repo.CustomerRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares loading the whole customer table with the keyset paged and the streaming variant of GET /customers.
+ * Run with the gc profiler ({@code -prof gc}): the allocation per operation of {@code findAll} grows with the table,
+ * while the heap needed by {@code streamAll} and {@code firstPage} stays flat. The small heap makes
+ * {@code findAll} fail first when the table grows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx256m")
+public class CustomerListingBenchmark {
+
+    @Param({"10000", "50000", "100000"})
+    public int dataset;
+
+    private ConfigurableApplicationContext context;
+    private CustomerRepository customerRepository;
+    private CustomerFacade customerFacade;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seedCustomers(context, dataset);
+        customerRepository = context.getBean(CustomerRepository.class);
+        customerFacade = context.getBean(CustomerFacade.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Customer> findAll() {
+        return customerRepository.findAll();
+    }
+
+    @Benchmark
+    public List<Customer> firstPage() {
+        return customerRepository.findPageAfter(0L, PageRequest.ofSize(100));
+    }
+
+    @Benchmark
+    public void streamAll() throws IOException {
+        customerFacade.streamCustomers().getBody().writeTo(OutputStream.nullOutputStream());
+    }
+}
@@ -0,0 +1,120 @@
+package com.haw.srs.customerservice;
+
+import com.haw.srs.customerservice.Exception.CourseFullException;
+import com.haw.srs.customerservice.Exception.CourseIdMissingException;
+import com.haw.srs.customerservice.Exception.CourseNotFoundException;
+import com.haw.srs.customerservice.Exception.CustomerNotFoundException;
+import com.haw.srs.customerservice.Exception.PreconditionFailedException;
+import com.haw.srs.customerservice.Repo.CustomerRepository;
+import com.haw.srs.customerservice.Service.CourseService;
+import com.haw.srs.customerservice.Service.CustomerPatch;
+import com.haw.srs.customerservice.Service.CustomerService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Changing the email of a customer with {@code courses} memberships: as the former PUT did it (load, clear and
+ * re-add all courses, save), as PUT does it now (courses as a diff), and as a merge patch of the email only. The
+ * statements per operation are printed at the end of every trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CustomerUpdateBenchmark {
+
+    @Param({"10", "100"})
+    public int courses;
+
+    private ConfigurableApplicationContext context;
+    private CustomerService customerService;
+    private CustomerRepository customerRepository;
+    private TransactionTemplate transactionTemplate;
+    private Statistics statistics;
+    private Customer customer;
+    private final AtomicLong operations = new AtomicLong();
+    private final AtomicLong version = new AtomicLong();
+
+    @Setup
+    public void setUp() throws CourseNotFoundException {
+        context = BenchmarkContext.start();
+        customerService = context.getBean(CustomerService.class);
+        customerRepository = context.getBean(CustomerRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+
+        Long customerId = BenchmarkContext.seedCustomers(context, 1).get(0);
+        CourseService courseService = context.getBean(CourseService.class);
+        for (Long courseId : BenchmarkContext.seedCourses(context, courses)) {
+            courseService.enrollAllInCourse(courseId, List.of(customerId), List.of());
+        }
+        customer = customerRepository.findWithCoursesById(customerId).orElseThrow();
+    }
+
+    @Setup(Level.Iteration)
+    public void resetStatistics() {
+        statistics.clear();
+        operations.set(0);
+    }
+
+    @TearDown(Level.Iteration)
+    public void printStatements() {
+        if (operations.get() > 0) {
+            System.out.printf("%n%.1f statements, %.1f collection recreates per operation%n",
+                    (double) statistics.getPrepareStatementCount() / operations.get(),
+                    (double) statistics.getCollectionRecreateCount() / operations.get());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Customer formerPut() {
+        operations.incrementAndGet();
+        customer.setEmail("customer" + version.incrementAndGet() + "@dummy.org");
+        return transactionTemplate.execute(status -> {
+            Customer customerToUpdate = customerRepository.findWithCoursesById(customer.getId()).orElseThrow();
+            customerToUpdate.setFirstName(customer.getFirstName());
+            customerToUpdate.setLastName(customer.getLastName());
+            customerToUpdate.setEmail(customer.getEmail());
+            customerToUpdate.setPhoneNumber(customer.getPhoneNumber());
+            customerToUpdate.setGender(customer.getGender());
+            customerToUpdate.getCourses().clear();
+            customerToUpdate.getCourses().addAll(customer.getCourses());
+            return customerRepository.save(customerToUpdate);
+        });
+    }
+
+    @Benchmark
+    public Customer put()
+            throws CustomerNotFoundException, CourseIdMissingException, CourseNotFoundException, CourseFullException,
+                   PreconditionFailedException {
+        operations.incrementAndGet();
+        customer.setEmail("customer" + version.incrementAndGet() + "@dummy.org");
+        return customerService.patchCustomer(customer.getId(), CustomerPatch.replacing(customer), null);
+    }
+
+    @Benchmark
+    public Customer patchEmail()
+            throws CustomerNotFoundException, CourseIdMissingException, CourseNotFoundException, CourseFullException,
+                   PreconditionFailedException {
+        operations.incrementAndGet();
+        CustomerPatch patch = new CustomerPatch();
+        patch.setEmail(Optional.of("customer" + version.incrementAndGet() + "@dummy.org"));
+        return customerService.patchCustomer(customer.getId(), patch, null);
+    }
+}
@@ -0,0 +1,89 @@
+package com.haw.srs.customerservice;
+
+import com.haw.srs.customerservice.Exception.CustomerAlreadyExistingException;
+import com.haw.srs.customerservice.Repo.CourseRepository;
+import com.haw.srs.customerservice.Repo.CustomerRepository;
+import com.haw.srs.customerservice.Service.CustomerService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Inserts per second with many concurrent writers depending on the id generation: {@code auto} is the former mapping
+ * ({@code GenerationType.AUTO}, which Hibernate 6 already maps to a pooled {@code <entity>_seq} sequence with an
+ * increment of 50), the numbers are allocation sizes of the {@link PooledSequenceGenerator}. {@code auto} and
+ * {@code 50} are expected to be on par, the generator only makes the block size configurable; {@code 1} shows the
+ * cost of one sequence (on MySQL: id table) round trip per insert.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@Threads(IdGenerationBenchmark.THREADS)
+public class IdGenerationBenchmark {
+
+    static final int THREADS = 16;
+    private static final int BATCH = 100;
+
+    @Param({"auto", "1", "50", "500"})
+    public String idGeneration;
+
+    private ConfigurableApplicationContext context;
+    private CustomerService customerService;
+    private CustomerRepository customerRepository;
+    private CourseRepository courseRepository;
+    private final AtomicLong created = new AtomicLong();
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start(idGeneration.equals("auto")
+                        // the sequences keep the default increment of 50 that AUTO expects
+                        ? "spring.jpa.mapping-resources=META-INF/auto-id-mapping.xml"
+                        : "customerservice.ids.allocation-size=" + idGeneration,
+                // a connection per thread: a batch holds its connection while it waits for the optimizer lock, whose
+                // holder may still wait for its first connection (LazyConnectionDataSourceProxy)
+                "spring.datasource.hikari.maximum-pool-size=" + THREADS);
+        // a mapping file that does not apply would silently measure the pooled generator twice
+        boolean pooledSequenceGenerator = context.getBean(EntityManagerFactory.class).unwrap(SessionFactoryImplementor.class)
+                .getMappingMetamodel().getEntityDescriptor(Customer.class).getIdentifierGenerator() instanceof PooledSequenceGenerator;
+        if (pooledSequenceGenerator == idGeneration.equals("auto")) {
+            throw new IllegalStateException("Customer ids are not generated as configured by " + idGeneration);
+        }
+        customerService = context.getBean(CustomerService.class);
+        customerRepository = context.getBean(CustomerRepository.class);
+        courseRepository = context.getBean(CourseRepository.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Customer createCustomer() throws CustomerAlreadyExistingException {
+        return customerService.createCustomer("Jane", "Created" + created.incrementAndGet(), Gender.FEMALE);
+    }
+
+    @Benchmark
+    public Course createCourse() {
+        return courseRepository.save(new Course("Course" + created.incrementAndGet()));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public List<Customer> saveCustomerBatch() {
+        List<Customer> customers = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            customers.add(new Customer("Jane", "Batched" + created.incrementAndGet(), Gender.FEMALE));
+        }
+        return customerRepository.saveAll(customers);
+    }
+}
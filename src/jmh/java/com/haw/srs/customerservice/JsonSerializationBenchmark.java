@@ -0,0 +1,79 @@
+package com.haw.srs.customerservice;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization of the REST payloads with the ObjectMapper configured by Spring, for a customer holding
+ * {@code courses} courses, a single course and a page of customers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    @Param({"10", "200"})
+    public int courses;
+
+    private ConfigurableApplicationContext context;
+    private ObjectMapper objectMapper;
+    private Customer customer;
+    private Course course;
+    private List<Customer> page;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        objectMapper = context.getBean(ObjectMapper.class);
+
+        customer = customer(0);
+        course = new Course("Software Engineering 1");
+        course.setId(1L);
+        page = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            page.add(customer(i));
+        }
+    }
+
+    private Customer customer(int number) {
+        Customer customer = new Customer("Jane", "Doe" + number, Gender.FEMALE, "jane.doe@dummy.org", new PhoneNumber("+49-040-428758434"));
+        customer.setId((long) number);
+        for (int i = 0; i < courses; i++) {
+            Course enrolled = new Course("Course" + i);
+            enrolled.setId((long) i);
+            customer.getCourses().add(enrolled);
+        }
+        return customer;
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] serializeCustomer() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(customer);
+    }
+
+    @Benchmark
+    public byte[] serializeCourse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(course);
+    }
+
+    @Benchmark
+    public byte[] serializeCustomerPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
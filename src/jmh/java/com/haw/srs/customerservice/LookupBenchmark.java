@@ -0,0 +1,66 @@
+package com.haw.srs.customerservice;
+
+import com.haw.srs.customerservice.Repo.CourseRepository;
+import com.haw.srs.customerservice.Repo.CustomerRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup latency by name at growing table sizes. The last name and the course name are indexed, the first name is
+ * not and serves as the full table scan baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class LookupBenchmark {
+
+    private static final int COURSES = 1000;
+
+    @Param({"10000", "100000", "1000000"})
+    public int dataset;
+
+    private ConfigurableApplicationContext context;
+    private CustomerRepository customerRepository;
+    private CourseRepository courseRepository;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seedCustomers(context, dataset);
+        customerRepository = context.getBean(CustomerRepository.class);
+        courseRepository = context.getBean(CourseRepository.class);
+        BenchmarkContext.seedCourses(context, COURSES);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Customer> findByLastName() {
+        return customerRepository.findByLastName("Last" + ThreadLocalRandom.current().nextInt(dataset));
+    }
+
+    @Benchmark
+    public boolean existsByLastName() {
+        return customerRepository.existsByLastName("Last" + ThreadLocalRandom.current().nextInt(dataset));
+    }
+
+    @Benchmark
+    public Optional<Customer> findByFirstNameWithoutIndex() {
+        return customerRepository.findCustomerByFirstName("First" + ThreadLocalRandom.current().nextInt(dataset));
+    }
+
+    @Benchmark
+    public Optional<Course> findCourseByName() {
+        return courseRepository.findCourseByName("Course" + ThreadLocalRandom.current().nextInt(COURSES));
+    }
+}
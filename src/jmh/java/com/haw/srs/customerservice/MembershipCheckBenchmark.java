@@ -0,0 +1,85 @@
+package com.haw.srs.customerservice;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Membership checks on a customer with many courses: the id-based {@code Set} of the entity against the same courses
+ * in a {@code List} as they were mapped before. Plain objects, no database involved.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MembershipCheckBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int courses;
+
+    private Customer customer;
+    private List<Course> courseList;
+    private Course[] probes;
+
+    @Setup
+    public void setUp() {
+        customer = new Customer("Jane", "Doe", Gender.FEMALE);
+        customer.setId(1L);
+        courseList = new ArrayList<>(courses);
+        for (long id = 0; id < courses; id++) {
+            Course course = course(id);
+            customer.addCourse(course);
+            courseList.add(course);
+        }
+        // half of the probes are members, fresh instances as they come from another query or the request body
+        probes = new Course[1024];
+        for (int i = 0; i < probes.length; i++) {
+            probes[i] = course(ThreadLocalRandom.current().nextLong(2L * courses));
+        }
+    }
+
+    private static Course course(long id) {
+        Course course = new Course("Course" + id);
+        course.setId(id);
+        return course;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1024)
+    public int containsInSet() {
+        int members = 0;
+        for (Course probe : probes) {
+            if (customer.getCourses().contains(probe)) {
+                members++;
+            }
+        }
+        return members;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1024)
+    public int containsInList() {
+        int members = 0;
+        for (Course probe : probes) {
+            if (courseList.contains(probe)) {
+                members++;
+            }
+        }
+        return members;
+    }
+
+    @Benchmark
+    public boolean addAndRemove() {
+        Course probe = probes[ThreadLocalRandom.current().nextInt(probes.length)];
+        boolean added = customer.getCourses().add(probe);
+        if (added) {
+            customer.getCourses().remove(probe);
+        }
+        return added;
+    }
+}
@@ -0,0 +1,64 @@
+package com.haw.srs.customerservice;
+
+import com.haw.srs.customerservice.Exception.CustomerNotFoundException;
+import com.haw.srs.customerservice.Service.CourseService;
+import com.haw.srs.customerservice.Service.CustomerService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the service timers, repository timers and histograms: the same calls with all instrumentation on and off.
+ * The difference per operation is the overhead paid in production.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Threads(4)
+@Fork(1)
+public class MetricsOverheadBenchmark {
+
+    @Param({"true", "false"})
+    public boolean instrumented;
+
+    @Param({"10000"})
+    public int dataset;
+
+    private ConfigurableApplicationContext context;
+    private CustomerService customerService;
+    private CourseService courseService;
+    private List<Long> courseIds;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "customerservice.metrics.timed=" + instrumented,
+                "management.metrics.data.repository.autotime.enabled=" + instrumented);
+        BenchmarkContext.seedCustomers(context, dataset);
+        courseIds = BenchmarkContext.seedCourses(context, Math.max(1, dataset / 100));
+        customerService = context.getBean(CustomerService.class);
+        courseService = context.getBean(CourseService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Customer findCustomerByLastname() throws CustomerNotFoundException {
+        return customerService.findCustomerByLastname("Last" + ThreadLocalRandom.current().nextInt(dataset));
+    }
+
+    @Benchmark
+    public void enrollInCourse() throws CustomerNotFoundException {
+        Course course = new Course();
+        course.setId(courseIds.get(ThreadLocalRandom.current().nextInt(courseIds.size())));
+        courseService.enrollInCourse("Last" + ThreadLocalRandom.current().nextInt(dataset), course);
+    }
+}
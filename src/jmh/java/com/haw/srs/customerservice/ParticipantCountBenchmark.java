@@ -0,0 +1,86 @@
+package com.haw.srs.customerservice;
+
+import com.haw.srs.customerservice.Repo.CourseParticipantsRepository;
+import com.haw.srs.customerservice.Repo.CourseRepository;
+import com.haw.srs.customerservice.Service.ParticipantCountService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Participant counts for a page of {@value #COURSES} courses with {@code participants} members each: read from the
+ * materialized summary table, aggregated with GROUP BY over customer_courses, and counted by loading the customer
+ * collection of every course. The last one is what serving the count from the entity graph costs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ParticipantCountBenchmark {
+
+    private static final int COURSES = 100;
+
+    @Param({"10", "1000"})
+    public int participants;
+
+    private ConfigurableApplicationContext context;
+    private ParticipantCountService participantCountService;
+    private CourseParticipantsRepository courseParticipantsRepository;
+    private CourseRepository courseRepository;
+    private TransactionTemplate transactionTemplate;
+    private List<Long> courseIds;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        participantCountService = context.getBean(ParticipantCountService.class);
+        courseParticipantsRepository = context.getBean(CourseParticipantsRepository.class);
+        courseRepository = context.getBean(CourseRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+
+        List<Long> customerIds = BenchmarkContext.seedCustomers(context, participants);
+        courseIds = BenchmarkContext.seedCourses(context, COURSES);
+
+        // every customer is a member of every course
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        List<Object[]> memberships = new ArrayList<>(COURSES * participants);
+        for (Long courseId : courseIds) {
+            for (Long customerId : customerIds) {
+                memberships.add(new Object[]{customerId, courseId});
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into customer_courses (customer_id, course_id) values (?, ?)", memberships);
+        jdbcTemplate.update("insert into course_participants (course_id, participants) "
+                + "select course_id, count(*) from customer_courses group by course_id");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Map<Long, Integer> summaryTable() {
+        return participantCountService.of(courseIds);
+    }
+
+    @Benchmark
+    public List<CourseParticipantsRepository.MembershipCount> groupByProjection() {
+        return courseParticipantsRepository.countMemberships(courseIds);
+    }
+
+    @Benchmark
+    public int loadCustomerCollections() {
+        return transactionTemplate.execute(status -> courseRepository.findAllById(courseIds).stream()
+                .mapToInt(course -> course.getCustomers().size())
+                .sum());
+    }
+}
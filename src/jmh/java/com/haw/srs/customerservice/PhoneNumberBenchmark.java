@@ -0,0 +1,59 @@
+package com.haw.srs.customerservice;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Hand-written phone number parser against the regex paths it replaced (pattern compiled per call as before, and
+ * precompiled). Run with {@code -prof gc} to compare the allocation per parse.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PhoneNumberBenchmark {
+
+    private static final Pattern PRECOMPILED = Pattern.compile(PhoneNumber.PHONENUMBER_PATTERN);
+
+    @Param({"+49-040-428758434", "+49-04O-428758434"})
+    public String phoneNumber;
+
+    @Benchmark
+    public void regexCompiledPerCall(Blackhole blackhole) {
+        Matcher matcher = Pattern.compile(PhoneNumber.PHONENUMBER_PATTERN).matcher(phoneNumber);
+        if (matcher.matches()) {
+            blackhole.consume(new PhoneNumber(matcher.group(1), matcher.group(2), matcher.group(3)));
+        }
+    }
+
+    @Benchmark
+    public void regexPrecompiled(Blackhole blackhole) {
+        Matcher matcher = PRECOMPILED.matcher(phoneNumber);
+        if (matcher.matches()) {
+            blackhole.consume(new PhoneNumber(matcher.group(1), matcher.group(2), matcher.group(3)));
+        }
+    }
+
+    @Benchmark
+    public void parser(Blackhole blackhole) {
+        if (PhoneNumber.isValid(phoneNumber)) {
+            blackhole.consume(new PhoneNumber(phoneNumber));
+        }
+    }
+
+    @Benchmark
+    public boolean isValidRegex() {
+        return phoneNumber.matches(PhoneNumber.PHONENUMBER_PATTERN);
+    }
+
+    @Benchmark
+    public boolean isValidParser() {
+        return PhoneNumber.isValid(phoneNumber);
+    }
+}
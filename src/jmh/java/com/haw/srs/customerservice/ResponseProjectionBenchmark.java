@@ -0,0 +1,94 @@
+package com.haw.srs.customerservice;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.haw.srs.customerservice.Exception.CourseNotFoundException;
+import com.haw.srs.customerservice.Exception.CustomerNotFoundException;
+import com.haw.srs.customerservice.Repo.CustomerRepository;
+import com.haw.srs.customerservice.Service.CourseService;
+import com.haw.srs.customerservice.Service.CustomerService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading and serializing GET /customers and GET /customers/{id} as before, from the entities with their courses, and
+ * from the read projections. Run with the gc profiler ({@code -prof gc}) for the allocation per operation; the
+ * response sizes are printed once during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ResponseProjectionBenchmark {
+
+    private static final int CUSTOMERS = 1000;
+    private static final Pageable PAGE = PageRequest.ofSize(100);
+
+    @Param({"1", "10"})
+    public int courses;
+
+    private ConfigurableApplicationContext context;
+    private ObjectMapper objectMapper;
+    private CustomerRepository customerRepository;
+    private CustomerService customerService;
+    private List<Long> customerIds;
+
+    @Setup
+    public void setUp() throws CourseNotFoundException, CustomerNotFoundException, JsonProcessingException {
+        context = BenchmarkContext.start();
+        objectMapper = context.getBean(ObjectMapper.class);
+        customerRepository = context.getBean(CustomerRepository.class);
+        customerService = context.getBean(CustomerService.class);
+        CourseService courseService = context.getBean(CourseService.class);
+
+        customerIds = BenchmarkContext.seedCustomers(context, CUSTOMERS);
+        for (int i = 0; i < courses; i++) {
+            Long courseId = courseService.createCourse(new Course("Course" + i)).getId();
+            courseService.enrollAllInCourse(courseId, customerIds, List.of());
+        }
+
+        Long customerId = customerIds.get(0);
+        System.out.printf("%ncourses=%d: customer %d -> %d bytes, page %d -> %d bytes%n", courses,
+                objectMapper.writeValueAsBytes(customerRepository.findWithCoursesById(customerId).orElseThrow()).length,
+                objectMapper.writeValueAsBytes(customerService.findCustomerView(customerId)).length,
+                objectMapper.writeValueAsBytes(customerRepository.findPageAfter(0L, PAGE)).length,
+                objectMapper.writeValueAsBytes(customerService.findCustomerViews(0L, PAGE)).length);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    private Long randomCustomer() {
+        return customerIds.get(ThreadLocalRandom.current().nextInt(CUSTOMERS));
+    }
+
+    @Benchmark
+    public byte[] entityCustomer() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(customerRepository.findWithCoursesById(randomCustomer()).orElseThrow());
+    }
+
+    @Benchmark
+    public byte[] viewCustomer() throws JsonProcessingException, CustomerNotFoundException {
+        return objectMapper.writeValueAsBytes(customerService.findCustomerView(randomCustomer()));
+    }
+
+    @Benchmark
+    public byte[] entityPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(customerRepository.findPageAfter(0L, PAGE));
+    }
+
+    @Benchmark
+    public byte[] viewPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(customerService.findCustomerViews(0L, PAGE));
+    }
+}
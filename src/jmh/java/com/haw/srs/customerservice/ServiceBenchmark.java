@@ -0,0 +1,107 @@
+package com.haw.srs.customerservice;
+
+import com.haw.srs.customerservice.Exception.CourseNotFoundException;
+import com.haw.srs.customerservice.Exception.CustomerAlreadyExistingException;
+import com.haw.srs.customerservice.Exception.CustomerNotFoundException;
+import com.haw.srs.customerservice.Exception.MembershipMailNotSent;
+import com.haw.srs.customerservice.Service.CourseService;
+import com.haw.srs.customerservice.Service.CustomerService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service hot paths against H2, seeded with {@code dataset} customers and one course per hundred customers.
+ * Override the size with {@code ./gradlew jmh -PjmhDataset=1000,100000}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ServiceBenchmark {
+
+    private static final int TRANSFERRED_COURSES = 20;
+
+    @Param({"10000"})
+    public int dataset;
+
+    private ConfigurableApplicationContext context;
+    private CourseService courseService;
+    private CustomerService customerService;
+    private List<Long> customerIds;
+    private List<Long> courseIds;
+    private final AtomicLong created = new AtomicLong();
+    private boolean transferBack;
+
+    @Setup
+    public void setUp() throws CourseNotFoundException {
+        context = BenchmarkContext.start();
+        customerIds = BenchmarkContext.seedCustomers(context, dataset);
+        courseIds = BenchmarkContext.seedCourses(context, Math.max(1, dataset / 100));
+        courseService = context.getBean(CourseService.class);
+        customerService = context.getBean(CustomerService.class);
+
+        // "Last0" starts with the courses that transferCourses moves back and forth to "Last1"
+        for (Long courseId : courseIds.subList(0, Math.min(TRANSFERRED_COURSES, courseIds.size()))) {
+            courseService.enrollAllInCourse(courseId, List.of(), List.of("Last0"));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Membership {
+
+        Long customerId;
+        Long courseId;
+
+        @Setup(Level.Invocation)
+        public void enroll(ServiceBenchmark benchmark) throws CourseNotFoundException {
+            // customers 0 and 1 are reserved for transferCourses
+            customerId = benchmark.customerIds.get(2 + ThreadLocalRandom.current().nextInt(benchmark.dataset - 2));
+            courseId = benchmark.randomCourse();
+            benchmark.courseService.enrollAllInCourse(courseId, List.of(customerId), List.of());
+        }
+    }
+
+    @Benchmark
+    public void enrollInCourse() throws CustomerNotFoundException {
+        Course course = new Course();
+        course.setId(randomCourse());
+        courseService.enrollInCourse("Last" + (2 + ThreadLocalRandom.current().nextInt(dataset - 2)), course);
+    }
+
+    @Benchmark
+    public void cancelMembership(Membership membership) throws CustomerNotFoundException, CourseNotFoundException, MembershipMailNotSent {
+        courseService.cancelMembership(membership.customerId, membership.courseId);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void transferCourses() throws CustomerNotFoundException {
+        if (transferBack) {
+            courseService.transferCourses("Last1", "Last0");
+        } else {
+            courseService.transferCourses("Last0", "Last1");
+        }
+        transferBack = !transferBack;
+    }
+
+    @Benchmark
+    public Customer createCustomer() throws CustomerAlreadyExistingException {
+        return customerService.createCustomer("Jane", "Created" + created.incrementAndGet(), Gender.FEMALE);
+    }
+
+    private Long randomCourse() {
+        return courseIds.get(ThreadLocalRandom.current().nextInt(courseIds.size()));
+    }
+}
@@ -0,0 +1,71 @@
+package com.haw.srs.customerservice;
+
+import com.haw.srs.customerservice.Exception.CustomerNotFoundException;
+import com.haw.srs.customerservice.Service.CourseService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * transferCourses between two customers holding {@code courses} courses each, half of them shared. The memberships
+ * are restored with plain JDBC before every invocation, so each call merges the same overlapping sets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TransferCoursesBenchmark {
+
+    @Param({"100", "500"})
+    public int courses;
+
+    private ConfigurableApplicationContext context;
+    private CourseService courseService;
+    private JdbcTemplate jdbcTemplate;
+    private Long fromId;
+    private Long toId;
+    private List<Object[]> memberships;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        courseService = context.getBean(CourseService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        List<Long> customerIds = BenchmarkContext.seedCustomers(context, 2);
+        fromId = customerIds.get(0);
+        toId = customerIds.get(1);
+        List<Long> courseIds = BenchmarkContext.seedCourses(context, courses + courses / 2);
+
+        // "Last0" holds the first courses, "Last1" the last courses, the middle half overlaps
+        memberships = new ArrayList<>();
+        for (Long courseId : courseIds.subList(0, courses)) {
+            memberships.add(new Object[]{fromId, courseId});
+        }
+        for (Long courseId : courseIds.subList(courses / 2, courseIds.size())) {
+            memberships.add(new Object[]{toId, courseId});
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void restoreMemberships() {
+        jdbcTemplate.update("delete from customer_courses where customer_id in (?, ?)", fromId, toId);
+        jdbcTemplate.batchUpdate("insert into customer_courses (customer_id, course_id) values (?, ?)", memberships);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void transferCourses() throws CustomerNotFoundException {
+        courseService.transferCourses("Last0", "Last1");
+    }
+}
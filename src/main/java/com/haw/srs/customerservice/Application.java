@@ -6,11 +6,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Arrays;
 
 @SpringBootApplication
+@EnableScheduling
 public class Application {
 
     public static void main(String[] args) {
@@ -31,18 +34,20 @@ class PopulateTestDataRunner implements CommandLineRunner {
         this.courseRepository = courseRepository;
     }
 
+    // one transaction, so the saved course is still managed when the customer's save cascades to it
     @Override
+    @Transactional
     public void run(String... args) {
-        Arrays.asList(
+        // one insert batch, the ids come from a single sequence block
+        customerRepository.saveAll(Arrays.stream(
                 "Miller,Doe,Smith".split(","))
-                .forEach(
-                        name -> customerRepository.save(new Customer("Jane", name, Gender.FEMALE, name + "@dummy.org", null))
-                );
+                .map(name -> new Customer("Jane", name, Gender.FEMALE, name + "@dummy.org", null))
+                .toList());
 
         Customer customer = new Customer("Stefan", "Sarstedt", Gender.MALE, "stefan.sarstedt@haw-hamburg.de", new PhoneNumber("+49-40-428758434"));
-        Course course = new Course("Software Engineering 1");
+        // saved first, the course only gets its id (and thereby its hash code) when it is persisted
+        Course course = courseRepository.save(new Course("Software Engineering 1"));
         customer.addCourse(course);
-        //courseRepository.save(course);
 
 
         customerRepository.save(customer);
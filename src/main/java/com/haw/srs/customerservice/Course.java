@@ -5,28 +5,57 @@ import jakarta.persistence.*;
 import lombok.AccessLevel;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.Formula;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.OptimisticLock;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.HashSet;
+import java.util.Set;
 
 @Entity
+@Table(indexes = @Index(name = "idx_course_name", columnList = "name"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Course.CACHE_REGION)
 @Data
 @NoArgsConstructor // (access = AccessLevel.PRIVATE)
 public class Course {
 
+    // second-level cache regions, configured (size, TTL) in application.conf
+    public static final String CACHE_REGION = "course";
+    public static final String NAME_QUERY_CACHE_REGION = "course-by-name";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(generator = "course_seq")
+    @GenericGenerator(name = "course_seq", type = PooledSequenceGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "course_seq"))
     private Long id;
 
+    @Version
+    @JsonIgnore
+    private Long version;
+
     private String name;
+
+    // seats of the course, null for no limit; customers beyond it go onto the waiting list
+    private Integer capacity;
+
+    // memberships are versioned with the customer, not with the course
     @JsonIgnore
+    @OptimisticLock(excluded = true)
     @ManyToMany( mappedBy = "courses",cascade = CascadeType.PERSIST,
-    fetch = FetchType.EAGER)
-    private List<Customer> customers = new ArrayList<>();
+    fetch = FetchType.LAZY)
+    @ToString.Exclude
+    private Set<Customer> customers = new HashSet<>();
 
     // @Formula("select count (*) from customer_courses where course_id=id")
-    private Integer anzahlTeilnehmer;
+    // not stored with the course (and thereby not cached with it), filled in from the ParticipantCountService
+    @Transient
+    private Integer anzahlTeilnehmer = 0;
 
     public Course(String name) {
         this.name = name;
@@ -34,5 +63,20 @@ public class Course {
 
     }
 
+    /**
+     * Courses are equal if they have the same id, see {@link Customer#equals(Object)}.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof Course other && id != null && id.equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return id != null ? id.hashCode() : System.identityHashCode(this);
+    }
 
 }
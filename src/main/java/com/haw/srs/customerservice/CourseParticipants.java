@@ -0,0 +1,20 @@
+package com.haw.srs.customerservice;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// materialized number of customer_courses rows per course, maintained incrementally by the ParticipantCountService
+@Entity
+@Table(name = "course_participants")
+@Data
+@NoArgsConstructor
+public class CourseParticipants {
+
+    @Id
+    private Long courseId;
+
+    private int participants;
+}
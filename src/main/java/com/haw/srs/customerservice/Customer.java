@@ -1,43 +1,72 @@
 package com.haw.srs.customerservice;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AccessLevel;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import jakarta.persistence.FetchType;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.type.SqlTypes;
 
 import jakarta.persistence.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.HashSet;
+import java.util.Set;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_customer_last_name", columnList = "lastName"),
+        @Index(name = "idx_customer_first_name", columnList = "firstName"),
+        @Index(name = "idx_customer_email", columnList = "email")})
+// updates only write the changed columns, e.g. a patched email
+@DynamicUpdate
+@NamedEntityGraph(name = Customer.WITH_COURSES, attributeNodes = @NamedAttributeNode("courses"))
 @Data
 @NoArgsConstructor//(access = AccessLevel.PRIVATE)
 public class Customer {
 
+    // fetch plan for every read that serializes the customer including its courses
+    public static final String WITH_COURSES = "Customer.courses";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(generator = "customer_seq")
+    @GenericGenerator(name = "customer_seq", type = PooledSequenceGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "customer_seq"))
     private Long id;
 
+    // incremented by every update, including changed memberships, see ETags; not part of the JSON
+    @Version
+    @JsonIgnore
+    private Long version;
+
     private String firstName;
 
     private String lastName;
 
+    // varchar as created by the migration, not a native enum column
     @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
     private Gender gender;
 
     private String email;
 
     private PhoneNumber phoneNumber;
 
-    @ManyToMany(cascade = CascadeType.PERSIST,fetch = FetchType.EAGER)
+    @ManyToMany(cascade = CascadeType.PERSIST, fetch = FetchType.LAZY)
     @JoinTable(
             name = "customer_courses",
             joinColumns = @JoinColumn(name = "customer_id"),
-            inverseJoinColumns = @JoinColumn(name = "course_id")
+            inverseJoinColumns = @JoinColumn(name = "course_id"),
+            // the primary key (customer_id, course_id) serves the customer side, this one members of a course
+            indexes = @Index(name = "idx_customer_courses_course", columnList = "course_id, customer_id")
     )
     @Setter(AccessLevel.NONE)
-    private List<Course> courses = new ArrayList<>();
+    private Set<Course> courses = new HashSet<>();
 
     public Customer(String firstName, String lastName, Gender gender, String email, PhoneNumber phoneNumber) {
         this.firstName = firstName;
@@ -57,14 +86,37 @@ public class Customer {
 
     public void addCourse(Course course) {
         this.courses.add(course);
-        course.getCustomers().add(this);
+        // the inverse side is never written, only keep it in sync if it is loaded anyway
+        if (Hibernate.isInitialized(course) && Hibernate.isInitialized(course.getCustomers())) {
+            course.getCustomers().add(this);
+        }
 
        // course.setAnzahlTeilnehmer(course.getAnzahlTeilnehmer()+1);
     }
 
     public void removeCourse(Course course) {
         this.courses.remove(course);
-        course.getCustomers().remove(this);
+        if (Hibernate.isInitialized(course) && Hibernate.isInitialized(course.getCustomers())) {
+            course.getCustomers().remove(this);
+        }
        // course.setAnzahlTeilnehmer(course.getAnzahlTeilnehmer()-1);
     }
+
+    /**
+     * Customers are equal if they have the same id. A customer without id is only equal to itself, so it has to be
+     * saved before it is put into a set it should stay findable in.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        // instanceof and getId() also work for hibernate proxies
+        return o instanceof Customer other && id != null && id.equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return id != null ? id.hashCode() : System.identityHashCode(this);
+    }
 }
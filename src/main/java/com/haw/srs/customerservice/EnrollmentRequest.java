@@ -0,0 +1,38 @@
+package com.haw.srs.customerservice;
+
+import com.haw.srs.customerservice.Service.BulkEnrollmentResult;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+
+// an enrollment submitted with an idempotency key; the primary key makes a retried submission fail to insert again
+@Entity
+@Table(name = "enrollment_request", indexes = @Index(name = "idx_enrollment_request_created", columnList = "created_at"))
+@Data
+@NoArgsConstructor
+public class EnrollmentRequest {
+
+    public static final int MAX_KEY_LENGTH = 255;
+
+    @Id
+    @Column(name = "idempotency_key", length = MAX_KEY_LENGTH)
+    private String idempotencyKey;
+
+    @Column(name = "course_id", nullable = false)
+    private Long courseId;
+
+    @Column(name = "last_name", nullable = false)
+    private String lastName;
+
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(length = 16)
+    private BulkEnrollmentResult.Status status;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
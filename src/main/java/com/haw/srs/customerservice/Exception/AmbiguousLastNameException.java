@@ -0,0 +1,24 @@
+package com.haw.srs.customerservice.Exception;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Last names are not unique: a lookup by last name that matches several customers cannot pick one. Unchecked, as
+ * every lookup by last name may throw it.
+ */
+@Value
+@EqualsAndHashCode(callSuper=false)
+@ResponseStatus(HttpStatus.CONFLICT)
+public class AmbiguousLastNameException extends RuntimeException {
+
+    private final String lastName;
+
+    public AmbiguousLastNameException(String lastName) {
+        super(String.format("There are several customers with name %s.", lastName));
+
+        this.lastName = lastName;
+    }
+}
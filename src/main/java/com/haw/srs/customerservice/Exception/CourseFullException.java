@@ -0,0 +1,20 @@
+package com.haw.srs.customerservice.Exception;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@Value
+@EqualsAndHashCode(callSuper=false)
+@ResponseStatus(HttpStatus.CONFLICT)
+public class CourseFullException extends Exception {
+
+    private final long courseNumber;
+
+    public CourseFullException(long courseNumber) {
+        super(String.format("Course with number %d has no free seat.", courseNumber));
+
+        this.courseNumber = courseNumber;
+    }
+}
@@ -0,0 +1,16 @@
+package com.haw.srs.customerservice.Exception;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@Value
+@EqualsAndHashCode(callSuper=false)
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class CourseIdMissingException extends Exception {
+
+    public CourseIdMissingException() {
+        super("Courses of a customer have to be referenced by their id.");
+    }
+}
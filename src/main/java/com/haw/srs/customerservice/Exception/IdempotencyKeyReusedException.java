@@ -0,0 +1,20 @@
+package com.haw.srs.customerservice.Exception;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@Value
+@EqualsAndHashCode(callSuper=false)
+@ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+public class IdempotencyKeyReusedException extends Exception {
+
+    private final String idempotencyKey;
+
+    public IdempotencyKeyReusedException(String idempotencyKey) {
+        super(String.format("Idempotency key %s was already used for a different enrollment.", idempotencyKey));
+
+        this.idempotencyKey = idempotencyKey;
+    }
+}
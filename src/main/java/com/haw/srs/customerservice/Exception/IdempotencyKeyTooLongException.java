@@ -0,0 +1,20 @@
+package com.haw.srs.customerservice.Exception;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@Value
+@EqualsAndHashCode(callSuper=false)
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class IdempotencyKeyTooLongException extends Exception {
+
+    private final int maxLength;
+
+    public IdempotencyKeyTooLongException(int maxLength) {
+        super(String.format("Idempotency key is longer than %d characters.", maxLength));
+
+        this.maxLength = maxLength;
+    }
+}
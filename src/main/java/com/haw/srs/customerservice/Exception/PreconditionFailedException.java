@@ -0,0 +1,20 @@
+package com.haw.srs.customerservice.Exception;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@Value
+@EqualsAndHashCode(callSuper=false)
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class PreconditionFailedException extends Exception {
+
+    private final String eTag;
+
+    public PreconditionFailedException(String eTag) {
+        super(String.format("Resource was modified meanwhile, its current ETag is %s.", eTag));
+
+        this.eTag = eTag;
+    }
+}
@@ -0,0 +1,11 @@
+package com.haw.srs.customerservice.Facade;
+
+import java.util.List;
+
+public record BulkEnrollmentRequest(List<Long> customerIds, List<String> lastNames) {
+
+    public BulkEnrollmentRequest {
+        customerIds = customerIds == null ? List.of() : customerIds;
+        lastNames = lastNames == null ? List.of() : lastNames;
+    }
+}
@@ -2,10 +2,25 @@ package com.haw.srs.customerservice.Facade;
 
 import com.haw.srs.customerservice.Course;
 import com.haw.srs.customerservice.Exception.CourseNotFoundException;
+import com.haw.srs.customerservice.Exception.CustomerNotFoundException;
+import com.haw.srs.customerservice.Exception.IdempotencyKeyReusedException;
+import com.haw.srs.customerservice.Exception.IdempotencyKeyTooLongException;
+import com.haw.srs.customerservice.Exception.PreconditionFailedException;
 import com.haw.srs.customerservice.Repo.CourseRepository;
+import com.haw.srs.customerservice.Repo.CourseView;
+import com.haw.srs.customerservice.Service.BulkEnrollmentResult;
+import com.haw.srs.customerservice.Service.CourseService;
+import com.haw.srs.customerservice.Service.ETags;
+import com.haw.srs.customerservice.Service.EnrollmentResult;
+import com.haw.srs.customerservice.Service.IdempotentEnrollmentService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -13,36 +28,94 @@ import java.util.List;
 @RequestMapping("/courses")
 public class CourseFacade {
 
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
     private final CourseRepository courseRepository;
+    private final CourseService courseService;
+    private final IdempotentEnrollmentService idempotentEnrollmentService;
+    private final KeysetPaging keysetPaging;
 
     @Autowired
-    public CourseFacade(CourseRepository courseRepository) {
+    public CourseFacade(CourseRepository courseRepository, CourseService courseService,
+                        IdempotentEnrollmentService idempotentEnrollmentService, KeysetPaging keysetPaging) {
         this.courseRepository = courseRepository;
+        this.courseService = courseService;
+        this.idempotentEnrollmentService = idempotentEnrollmentService;
+        this.keysetPaging = keysetPaging;
     }
 
     @GetMapping
-    public List<Course> getAllCourses() {
-        return courseRepository.findAll();
+    public ResponseEntity<List<CourseView>> getAllCourses(@RequestParam(name = "after", defaultValue = "0") Long afterId,
+                                                          @RequestParam(name = "size", required = false) Integer size) {
+        Pageable page = keysetPaging.pageOf(size);
+        // courses joined with their counts in one query, the customers of the courses are never loaded
+        return keysetPaging.respond(courseService.findCourseViews(afterId, page), page, CourseView::id);
+    }
+
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamCourses() {
+        return keysetPaging.stream(courseService::findCourseViews, CourseView::id);
     }
 
+    /**
+     * The course with a strong {@code ETag}, see {@link ETags}. The course comes from the second-level cache, so a
+     * request whose {@code If-None-Match} is current costs the count lookup only: Spring answers it with 304 Not
+     * Modified before the body would be serialized.
+     */
     @GetMapping("/{id}")
-    public Course getCourseById(@PathVariable Long id) throws CourseNotFoundException{
-        return courseRepository.findById(id)
-                .orElseThrow(() -> new CourseNotFoundException(id));
+    public ResponseEntity<CourseView> getCourseById(@PathVariable Long id) throws CourseNotFoundException{
+        CourseView course = courseService.findCourseView(id);
+        return ResponseEntity.ok().eTag(ETags.of(course)).body(course);
     }
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public Course createCourse(@RequestBody Course course) {
-        return courseRepository.save(course);
+        return courseService.createCourse(course);
+    }
+
+    @PostMapping("/{id}/enrollments")
+    public BulkEnrollmentResult enrollCustomers(@PathVariable Long id, @RequestBody BulkEnrollmentRequest request) throws CourseNotFoundException {
+        return courseService.enrollAllInCourse(id, request.customerIds(), request.lastNames());
     }
 
+    /**
+     * Enrolls one customer. Safe to retry: a repeated request with the same {@code Idempotency-Key} header returns the
+     * result of the first one (with {@code replayed} set) without enrolling again, see {@link IdempotentEnrollmentService}.
+     */
+    @PostMapping("/{id}/enrollments/{lastName}")
+    public EnrollmentResult enrollCustomer(@PathVariable Long id, @PathVariable String lastName,
+                                           @RequestHeader(IDEMPOTENCY_KEY) String idempotencyKey)
+            throws CourseNotFoundException, CustomerNotFoundException, IdempotencyKeyReusedException,
+                   IdempotencyKeyTooLongException {
+        return idempotentEnrollmentService.enroll(idempotencyKey, id, lastName);
+    }
+
+    // customer ids in the order they get free seats
+    @GetMapping("/{id}/waiting-list")
+    public List<Long> getWaitingList(@PathVariable Long id) throws CourseNotFoundException {
+        return courseService.findWaitingList(id);
+    }
+
+    /**
+     * Renames the course and sets its capacity. With an {@code If-Match} header only if the course still has one of
+     * the given ETags, otherwise 412 Precondition Failed.
+     */
     @PutMapping("/{id}")
-    public Course updateCourse(@PathVariable Long id, @RequestBody Course updatedCourse) throws CourseNotFoundException {
-        Course course = courseRepository.findById(id)
-                .orElseThrow(() -> new CourseNotFoundException(id));
-        course.setName(updatedCourse.getName());
-        return courseRepository.save(course);
+    public ResponseEntity<Course> updateCourse(@PathVariable Long id, @RequestBody Course updatedCourse,
+                                               @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch)
+            throws CourseNotFoundException, PreconditionFailedException {
+        Course course;
+        try {
+            course = courseService.updateCourse(id, updatedCourse.getName(), updatedCourse.getCapacity(), ifMatch);
+        } catch (OptimisticLockingFailureException concurrentUpdate) {
+            if (ifMatch == null) {
+                throw concurrentUpdate;
+            }
+            // the tag matched, but another update committed before this one
+            throw new PreconditionFailedException(ETags.of(courseService.findCourseViewOnPrimary(id)));
+        }
+        return ResponseEntity.ok().eTag(ETags.of(course)).body(course);
     }
 
     @DeleteMapping("/{id}")
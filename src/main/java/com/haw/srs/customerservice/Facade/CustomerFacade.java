@@ -1,67 +1,184 @@
 package com.haw.srs.customerservice.Facade;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.haw.srs.customerservice.Customer;
+import com.haw.srs.customerservice.Exception.CourseFullException;
+import com.haw.srs.customerservice.Exception.CourseIdMissingException;
+import com.haw.srs.customerservice.Exception.CourseNotFoundException;
 import com.haw.srs.customerservice.Exception.CustomerNotFoundException;
-import com.haw.srs.customerservice.Repo.CustomerRepository;
+import com.haw.srs.customerservice.Exception.PreconditionFailedException;
+import com.haw.srs.customerservice.Repo.CustomerView;
+import com.haw.srs.customerservice.Service.CustomerExportService;
+import com.haw.srs.customerservice.Service.CustomerFilter;
+import com.haw.srs.customerservice.Service.CustomerImportService;
+import com.haw.srs.customerservice.Service.CustomerPatch;
+import com.haw.srs.customerservice.Service.CustomerService;
+import com.haw.srs.customerservice.Service.ETags;
+import com.haw.srs.customerservice.Service.FileFormat;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
 @RequestMapping(path = "/customers")
 public class CustomerFacade {
 
-    private final CustomerRepository customerRepository;
+    private final CustomerService customerService;
+    private final KeysetPaging keysetPaging;
+    private final CustomerImportService customerImportService;
+    private final CustomerExportService customerExportService;
+    private final ObjectWriter reportWriter;
 
     @Autowired
-    public CustomerFacade(CustomerRepository customerRepository) {
-        this.customerRepository = customerRepository;
+    public CustomerFacade(CustomerService customerService, KeysetPaging keysetPaging,
+                          CustomerImportService customerImportService, CustomerExportService customerExportService,
+                          ObjectMapper objectMapper) {
+        this.customerService = customerService;
+        this.keysetPaging = keysetPaging;
+        this.customerImportService = customerImportService;
+        this.customerExportService = customerExportService;
+        this.reportWriter = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
     }
 
+    // read endpoints answer with projections, see CustomerView; writes still return the entity
+
     @GetMapping
-    public List<Customer> getCustomers() {
-        return customerRepository.findAll();
+    public ResponseEntity<List<CustomerView>> getCustomers(@RequestParam(name = "after", defaultValue = "0") Long afterId,
+                                                           @RequestParam(name = "size", required = false) Integer size) {
+        Pageable page = keysetPaging.pageOf(size);
+        return keysetPaging.respond(customerService.findCustomerViews(afterId, page), page, CustomerView::id);
+    }
+
+    /**
+     * Customers matching all given query parameters: {@code lastName} and {@code firstName} (prefix), {@code email},
+     * {@code gender} and {@code course} (id of a course the customer is enrolled in). Paged like {@code GET /customers}.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<CustomerView>> searchCustomers(CustomerFilter filter,
+                                                              @RequestParam(name = "after", defaultValue = "0") Long afterId,
+                                                              @RequestParam(name = "size", required = false) Integer size) {
+        Pageable page = keysetPaging.pageOf(size);
+        return keysetPaging.respond(customerService.searchCustomers(filter, afterId, page), page, CustomerView::id);
+    }
+
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamCustomers() {
+        return keysetPaging.stream(customerService::findCustomerViews, CustomerView::id);
     }
 
+    /**
+     * All customers with their courses for reporting, one row per membership: newline delimited JSON if the
+     * {@code Accept} header asks for it, CSV otherwise. See {@link CustomerExportService}.
+     */
+    @GetMapping(value = "/export", produces = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<StreamingResponseBody> exportCustomers(
+            @RequestHeader(name = HttpHeaders.ACCEPT, defaultValue = "text/csv") String accept) {
+        FileFormat format = accept.contains(MediaType.APPLICATION_NDJSON_VALUE) ? FileFormat.NDJSON : FileFormat.CSV;
+        return ResponseEntity.ok()
+                .contentType(format == FileFormat.NDJSON ? MediaType.APPLICATION_NDJSON : MediaType.parseMediaType("text/csv"))
+                .body(out -> customerExportService.export(out, format));
+    }
+
+    /**
+     * The customer with a strong {@code ETag}, see {@link ETags}. While the tag in {@code If-None-Match} is current, the
+     * answer is 304 Not Modified, decided from the versions alone: the customer is neither selected nor serialized.
+     */
     @GetMapping(value = "/{id:[\\d]+}")
-    public Customer getCustomer(@PathVariable("id") Long customerId) throws CustomerNotFoundException {
-        return customerRepository
-                .findById(customerId)
-                .orElseThrow(() -> new CustomerNotFoundException(customerId));
+    public ResponseEntity<CustomerView> getCustomer(@PathVariable("id") Long customerId,
+                                                    @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch)
+            throws CustomerNotFoundException {
+        if (ifNoneMatch != null) {
+            String eTag = customerService.findCustomerETag(customerId);
+            if (ETags.matchesWeakly(ifNoneMatch, eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+            }
+        }
+        CustomerView customer = customerService.findCustomerView(customerId);
+        return ResponseEntity.ok().eTag(ETags.of(customer)).body(customer);
     }
 
 
     @DeleteMapping("/{id:[\\d]+}")
     @ResponseStatus(HttpStatus.OK)
     public void deleteCustomer(@PathVariable("id") Long customerId) throws CustomerNotFoundException {
-        Customer customer = customerRepository
-                .findById(customerId)
-                .orElseThrow(() -> new CustomerNotFoundException(customerId));
-
-        customerRepository.delete(customer);
+        customerService.deleteCustomer(customerId);
     }
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public Customer createCustomer(@RequestBody Customer customer) {
+    public Customer createCustomer(@RequestBody Customer customer)
+            throws CourseIdMissingException, CourseNotFoundException, CourseFullException {
+        return customerService.createCustomer(customer);
+    }
 
-        return customerRepository.save(customer);
+    /**
+     * Creates the customers of a CSV file (header line with the column names firstName, lastName, gender, email,
+     * phoneNumber) or of newline delimited JSON objects with the same properties. The body is read while it is
+     * uploaded; rejected rows and progress are reported as newline delimited JSON, see {@link ImportReportWriter}.
+     */
+    @PostMapping(path = "/import", consumes = "text/csv", produces = "application/x-ndjson")
+    public void importCustomersFromCsv(InputStream body, HttpServletResponse response) throws IOException {
+        importCustomers(body, FileFormat.CSV, response);
     }
 
+    @PostMapping(path = "/import", consumes = "application/x-ndjson", produces = "application/x-ndjson")
+    public void importCustomersFromNdjson(InputStream body, HttpServletResponse response) throws IOException {
+        importCustomers(body, FileFormat.NDJSON, response);
+    }
+
+    private void importCustomers(InputStream body, FileFormat format, HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        customerImportService.importCustomers(body, format, new ImportReportWriter(reportWriter, response.getOutputStream()));
+    }
+
+    /**
+     * Replaces the customer. With an {@code If-Match} header only if the customer still has one of the given ETags,
+     * otherwise 412 Precondition Failed; the same applies to {@code PATCH}.
+     */
     @PutMapping
-    public Customer updateCustomer(@RequestBody Customer customer) throws CustomerNotFoundException {
-        Customer customerToUpdate = customerRepository
-                .findById(customer.getId())
-                .orElseThrow(() -> new CustomerNotFoundException(customer.getId()));
-        customerToUpdate.setFirstName(customer.getFirstName());
-        customerToUpdate.setLastName(customer.getLastName());
-        customerToUpdate.setEmail(customer.getEmail());
-        customerToUpdate.setPhoneNumber(customer.getPhoneNumber());
-        customerToUpdate.setGender(customer.getGender());
-        customerToUpdate.getCourses().clear();
-        customerToUpdate.getCourses().addAll(customer.getCourses());
-        return customerRepository.save(customerToUpdate);
+    public ResponseEntity<Customer> updateCustomer(@RequestBody Customer customer,
+                                                   @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch)
+            throws CustomerNotFoundException, CourseIdMissingException, CourseNotFoundException, CourseFullException, PreconditionFailedException {
+        // memberships are written as a diff against the current ones, not deleted and re-inserted
+        return patch(customer.getId(), CustomerPatch.replacing(customer), ifMatch);
+    }
+
+    /**
+     * Changes only the properties contained in the JSON Merge Patch, see {@link CustomerPatch}.
+     */
+    @PatchMapping(path = "/{id:[\\d]+}", consumes = "application/merge-patch+json")
+    public ResponseEntity<Customer> patchCustomer(@PathVariable("id") Long customerId, @RequestBody CustomerPatch patch,
+                                                  @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch)
+            throws CustomerNotFoundException, CourseIdMissingException, CourseNotFoundException, CourseFullException, PreconditionFailedException {
+        return patch(customerId, patch, ifMatch);
+    }
+
+    private ResponseEntity<Customer> patch(Long customerId, CustomerPatch patch, String ifMatch)
+            throws CustomerNotFoundException, CourseIdMissingException, CourseNotFoundException, CourseFullException, PreconditionFailedException {
+        Customer customer;
+        try {
+            customer = customerService.patchCustomer(customerId, patch, ifMatch);
+        } catch (OptimisticLockingFailureException concurrentUpdate) {
+            if (ifMatch == null) {
+                throw concurrentUpdate;
+            }
+            // the tag matched, but another update committed before this one
+            throw new PreconditionFailedException(customerService.findCustomerETagOnPrimary(customerId));
+        }
+        return ResponseEntity.ok().eTag(ETags.of(customer)).body(customer);
     }
 }
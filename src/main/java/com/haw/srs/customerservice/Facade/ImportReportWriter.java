@@ -0,0 +1,51 @@
+package com.haw.srs.customerservice.Facade;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.haw.srs.customerservice.Service.CustomerImportService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes the events of an import to the response as newline delimited JSON while the import runs: one
+ * {@code {"row":..,"error":..}} line per rejected row, one {@code {"firstRow":..,"lastRow":..,"error":..}} line per
+ * chunk the database rejected and one {@code {"processed":..,"imported":..,"failed":..}} line per written chunk. The last line holds the totals. A client that disconnects aborts the import.
+ */
+class ImportReportWriter implements CustomerImportService.Listener {
+
+    private final ObjectWriter writer;
+    private final OutputStream out;
+
+    ImportReportWriter(ObjectWriter writer, OutputStream out) {
+        this.writer = writer;
+        this.out = out;
+    }
+
+    @Override
+    public void rowFailed(CustomerImportService.RowError error) {
+        write(error, false);
+    }
+
+    @Override
+    public void chunkFailed(CustomerImportService.ChunkError error) {
+        write(error, false);
+    }
+
+    @Override
+    public void progress(CustomerImportService.Progress progress) {
+        write(progress, true);
+    }
+
+    private void write(Object event, boolean flush) {
+        try {
+            writer.writeValue(out, event);
+            out.write('\n');
+            if (flush) {
+                out.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
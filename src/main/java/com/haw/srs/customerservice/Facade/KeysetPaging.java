@@ -0,0 +1,95 @@
+package com.haw.srs.customerservice.Facade;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Shared keyset (cursor) paging for the list endpoints. The cursor is the id of the last element of the previous
+ * page, so every page is a single index range scan regardless of how deep the client has paged.
+ */
+@Component
+class KeysetPaging {
+
+    private final ObjectWriter writer;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final int streamBatchSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    KeysetPaging(ObjectMapper objectMapper,
+                 @Value("${customerservice.paging.default-size:100}") int defaultPageSize,
+                 @Value("${customerservice.paging.max-size:1000}") int maxPageSize,
+                 @Value("${customerservice.paging.stream-batch-size:500}") int streamBatchSize) {
+        // jackson would otherwise close the response stream after the first row
+        this.writer = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.streamBatchSize = streamBatchSize;
+    }
+
+    Pageable pageOf(Integer size) {
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        return PageRequest.ofSize(pageSize);
+    }
+
+    /**
+     * Wraps a page into a response. If the page is full, a {@code Link} header with {@code rel="next"} points to the
+     * following page.
+     */
+    <T> ResponseEntity<List<T>> respond(List<T> page, Pageable pageable, Function<T, Long> idOf) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.size() == pageable.getPageSize()) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("after", idOf.apply(page.get(page.size() - 1)))
+                    .replaceQueryParam("size", pageable.getPageSize())
+                    .toUriString();
+            response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return response.body(page);
+    }
+
+    /**
+     * Streams the whole table as newline delimited JSON. Rows are fetched in keyset batches and the persistence
+     * context is cleared after each batch, so memory stays bounded by the batch size and not by the table size.
+     */
+    <T> ResponseEntity<StreamingResponseBody> stream(BiFunction<Long, Pageable, List<T>> nextBatch, Function<T, Long> idOf) {
+        Pageable batch = PageRequest.ofSize(streamBatchSize);
+        StreamingResponseBody body = out -> {
+            long after = 0L;
+            List<T> rows = nextBatch.apply(after, batch);
+            while (!rows.isEmpty()) {
+                for (T row : rows) {
+                    writer.writeValue(out, row);
+                    out.write('\n');
+                }
+                out.flush();
+                after = idOf.apply(rows.get(rows.size() - 1));
+                entityManager.clear();
+                rows = rows.size() < streamBatchSize ? List.of() : nextBatch.apply(after, batch);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+}
@@ -0,0 +1,21 @@
+package com.haw.srs.customerservice;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hands the id allocation size to the {@link PooledSequenceGenerator}s.
+ */
+@Configuration(proxyBeanMethods = false)
+public class IdGenerationConfiguration {
+
+    @Bean
+    HibernatePropertiesCustomizer idAllocationSize(@Value("${customerservice.ids.allocation-size:50}") int allocationSize) {
+        if (allocationSize < 1) {
+            throw new IllegalArgumentException("customerservice.ids.allocation-size must be positive, was " + allocationSize);
+        }
+        return properties -> properties.put(PooledSequenceGenerator.ALLOCATION_SIZE, allocationSize);
+    }
+}
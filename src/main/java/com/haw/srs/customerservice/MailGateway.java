@@ -1,29 +1,25 @@
 package com.haw.srs.customerservice;
 
+import com.haw.srs.customerservice.Repo.MailOutboxRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.mail.MailException;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
+@Timed(MetricsConfiguration.SERVICE_TIMER)
 public class MailGateway {
 
     @Autowired
-    public JavaMailSender emailSender;
+    private MailOutboxRepository mailOutboxRepository;
 
-    public boolean sendMail(String to, String subject, String text) {
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(to);
-            message.setSubject(subject);
-            message.setText(text);
-            emailSender.send(message);
-        } catch (MailException ex) {
-            // do some logging and handling here
-            System.out.println("Mail could not be sent."+ex.getMessage());
-            return false;
-        }
-        return true;
+    /**
+     * Queues a mail in the outbox within the caller's transaction. The mail is only sent, by the
+     * {@link MailOutboxDispatcher}, if that transaction commits, and sending never blocks the caller.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueMail(String to, String subject, String text) {
+        mailOutboxRepository.save(new MailOutboxMessage(to, subject, text));
     }
 }
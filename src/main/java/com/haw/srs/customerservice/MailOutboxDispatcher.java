@@ -0,0 +1,215 @@
+package com.haw.srs.customerservice;
+
+import com.haw.srs.customerservice.Repo.MailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+/**
+ * Drains the mail outbox in the background. Due messages are sent in batches outside of any database transaction;
+ * sent messages are deleted, failed ones are retried with exponential backoff until the maximum number of attempts
+ * is reached and are then kept with status {@link MailStatus#FAILED}.
+ * <p>
+ * Several instances may dispatch the same outbox: a batch is first claimed with a conditional update, so every
+ * message is sent by one dispatcher only. A claim is a lease, messages of a dispatcher that died while sending are
+ * claimed again once it ran out.
+ */
+@Component
+public class MailOutboxDispatcher {
+
+    private final Log log = LogFactory.getLog(getClass());
+
+    private final MailOutboxRepository mailOutboxRepository;
+    private final JavaMailSender emailSender;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration lease;
+    // gauges only hold their state object weakly
+    private final CachedCount depth;
+    private final CachedCount dead;
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+
+    @Autowired
+    public MailOutboxDispatcher(MailOutboxRepository mailOutboxRepository,
+                                JavaMailSender emailSender,
+                                TransactionTemplate transactionTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${customerservice.mail.outbox.batch-size:50}") int batchSize,
+                                @Value("${customerservice.mail.outbox.max-attempts:8}") int maxAttempts,
+                                @Value("${customerservice.mail.outbox.initial-backoff:PT10S}") Duration initialBackoff,
+                                @Value("${customerservice.mail.outbox.max-backoff:PT1H}") Duration maxBackoff,
+                                @Value("${customerservice.mail.outbox.lease:PT5M}") Duration lease,
+                                @Value("${customerservice.mail.outbox.gauge-max-age:PT30S}") Duration gaugeMaxAge) {
+        this.mailOutboxRepository = mailOutboxRepository;
+        this.emailSender = emailSender;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.lease = lease;
+
+        this.depth = new CachedCount(gaugeMaxAge,
+                () -> mailOutboxRepository.countByStatusIn(List.of(MailStatus.PENDING, MailStatus.SENDING)));
+        this.dead = new CachedCount(gaugeMaxAge, () -> mailOutboxRepository.countByStatus(MailStatus.FAILED));
+        Gauge.builder("mail.outbox.depth", depth, CachedCount::value)
+                .description("Mails waiting in the outbox to be sent")
+                .register(meterRegistry);
+        Gauge.builder("mail.outbox.dead", dead, CachedCount::value)
+                .description("Mails given up after the maximum number of attempts")
+                .register(meterRegistry);
+        this.sentCounter = Counter.builder("mail.outbox.sent")
+                .description("Mails the mail server accepted")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("mail.outbox.failed")
+                .description("Send attempts the mail server rejected, each retry counts again")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${customerservice.mail.outbox.poll-interval:PT5S}",
+            initialDelayString = "${customerservice.mail.outbox.poll-interval:PT5S}")
+    public void dispatch() {
+        // keep draining as long as full batches go out completely, otherwise wait for the next poll
+        int sent;
+        do {
+            sent = dispatchBatch();
+        } while (sent == batchSize);
+    }
+
+    /**
+     * Claims and sends one batch of due messages.
+     *
+     * @return number of messages sent successfully
+     */
+    private int dispatchBatch() {
+        List<MailOutboxMessage> batch = claimBatch();
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<SimpleMailMessage, MailOutboxMessage> byMail = new IdentityHashMap<>();
+        batch.forEach(outboxMessage -> byMail.put(outboxMessage.toMailMessage(), outboxMessage));
+
+        Map<Object, Exception> failures = send(byMail);
+        List<MailOutboxMessage> sent = new ArrayList<>();
+        List<MailOutboxMessage> retried = new ArrayList<>();
+        byMail.forEach((mail, outboxMessage) -> {
+            Exception failure = failures.get(mail);
+            if (failure == null) {
+                sent.add(outboxMessage);
+            } else {
+                retried.add(scheduleRetry(outboxMessage, failure));
+            }
+        });
+
+        mailOutboxRepository.deleteAllInBatch(sent);
+        // only while still claimed: once the lease ran out, another dispatcher may have claimed and sent the message
+        transactionTemplate.executeWithoutResult(status -> retried.forEach(outboxMessage ->
+                mailOutboxRepository.reschedule(outboxMessage.getId(), outboxMessage.getClaimedBy(), outboxMessage.getStatus(),
+                        outboxMessage.getAttempts(), outboxMessage.getNextAttemptAt(), outboxMessage.getLastError())));
+        sentCounter.increment(sent.size());
+        failedCounter.increment(retried.size());
+        return sent.size();
+    }
+
+    private List<MailOutboxMessage> claimBatch() {
+        String token = UUID.randomUUID().toString();
+        return transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            List<Long> due = mailOutboxRepository.findDueIds(now, PageRequest.ofSize(batchSize));
+            if (due.isEmpty() || mailOutboxRepository.claim(due, token, now, now.plus(lease)) == 0) {
+                return List.of();
+            }
+            return mailOutboxRepository.findByClaimedByOrderByIdAsc(token);
+        });
+    }
+
+    private Map<Object, Exception> send(Map<SimpleMailMessage, MailOutboxMessage> byMail) {
+        try {
+            emailSender.send(byMail.keySet().toArray(new SimpleMailMessage[0]));
+            return Map.of();
+        } catch (MailSendException ex) {
+            return ex.getFailedMessages().isEmpty() ? allFailed(byMail, ex) : ex.getFailedMessages();
+        } catch (MailException ex) {
+            return allFailed(byMail, ex);
+        }
+    }
+
+    private MailOutboxMessage scheduleRetry(MailOutboxMessage outboxMessage, Exception failure) {
+        int attempts = outboxMessage.getAttempts() + 1;
+        outboxMessage.setAttempts(attempts);
+        outboxMessage.setLastError(abbreviate(failure.getMessage()));
+        if (attempts >= maxAttempts) {
+            outboxMessage.setStatus(MailStatus.FAILED);
+            log.warn("Giving up mail to " + outboxMessage.getRecipient() + " after " + attempts + " attempts: " + failure.getMessage());
+        } else {
+            outboxMessage.setStatus(MailStatus.PENDING);
+            Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+            outboxMessage.setNextAttemptAt(Instant.now().plus(backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff));
+        }
+        return outboxMessage;
+    }
+
+    private static Map<Object, Exception> allFailed(Map<SimpleMailMessage, MailOutboxMessage> byMail, Exception ex) {
+        Map<Object, Exception> failures = new IdentityHashMap<>();
+        byMail.keySet().forEach(mail -> failures.put(mail, ex));
+        return failures;
+    }
+
+    private static String abbreviate(String message) {
+        return message == null || message.length() <= 1000 ? message : message.substring(0, 1000);
+    }
+
+    /**
+     * Count behind a gauge, queried at most once per maximum age however often the gauge is scraped. Concurrent
+     * scrapes of an outdated count may both query it, which is harmless.
+     */
+    private static final class CachedCount {
+
+        private final long maxAgeNanos;
+        private final LongSupplier count;
+        private volatile long value;
+        private volatile long countedAt;
+        private volatile boolean counted;
+
+        CachedCount(Duration maxAge, LongSupplier count) {
+            this.maxAgeNanos = maxAge.toNanos();
+            this.count = count;
+        }
+
+        double value() {
+            long now = System.nanoTime();
+            if (!counted || now - countedAt >= maxAgeNanos) {
+                value = count.getAsLong();
+                countedAt = now;
+                counted = true;
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.haw.srs.customerservice;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.type.SqlTypes;
+import org.springframework.mail.SimpleMailMessage;
+
+import java.time.Instant;
+
+// a mail that is persisted together with the business change and sent by the MailOutboxDispatcher after commit
+@Entity
+@Table(indexes = @Index(name = "idx_mail_outbox_due", columnList = "status, nextAttemptAt"))
+@Data
+@NoArgsConstructor
+public class MailOutboxMessage {
+
+    @Id
+    @GeneratedValue(generator = "mail_outbox_message_seq")
+    @GenericGenerator(name = "mail_outbox_message_seq", type = PooledSequenceGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "mail_outbox_message_seq"))
+    private Long id;
+
+    private String recipient;
+
+    private String subject;
+
+    @Column(length = 4000)
+    private String text;
+
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    private MailStatus status;
+
+    private int attempts;
+
+    private Instant nextAttemptAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    // token of the dispatcher that claimed the message, null while it is pending
+    @Column(length = 36)
+    private String claimedBy;
+
+    public MailOutboxMessage(String recipient, String subject, String text) {
+        this.recipient = recipient;
+        this.subject = subject;
+        this.text = text;
+        this.status = MailStatus.PENDING;
+        this.attempts = 0;
+        this.nextAttemptAt = Instant.now();
+    }
+
+    public SimpleMailMessage toMailMessage() {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(recipient);
+        message.setSubject(subject);
+        message.setText(text);
+        return message;
+    }
+}
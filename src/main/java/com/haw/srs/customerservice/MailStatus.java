@@ -0,0 +1,6 @@
+package com.haw.srs.customerservice;
+
+public enum MailStatus {
+    // SENDING: claimed by a dispatcher until next_attempt_at, afterwards it may be claimed again
+    PENDING, SENDING, FAILED
+}
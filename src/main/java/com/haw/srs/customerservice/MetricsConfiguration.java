@@ -0,0 +1,26 @@
+package com.haw.srs.customerservice;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Turns {@code @Timed} on the services into timers. Repository, Hikari pool and Hibernate meters are registered by
+ * Spring Boot itself; everything is scraped from {@code /actuator/prometheus}.
+ */
+@Configuration(proxyBeanMethods = false)
+public class MetricsConfiguration {
+
+    /**
+     * Name of the timer around every public service method, tagged with class, method and exception.
+     */
+    public static final String SERVICE_TIMER = "customerservice.service";
+
+    @Bean
+    @ConditionalOnProperty(name = "customerservice.metrics.timed", matchIfMissing = true)
+    TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
@@ -5,8 +5,6 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 
 import jakarta.persistence.Embeddable;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 // this represents an immutable datatype (no setter)
 // we cannot use @Value from lombok since jpa needs a nonargconstructor when deserializing
@@ -16,7 +14,8 @@ import java.util.regex.Pattern;
 @Embeddable
 public class PhoneNumber {
 
-    private static final String PHONENUMBER_PATTERN = "^(\\+\\d{2})-(\\d{2,3})-(\\d{4,})$";
+    // reference format, parsing is done by hand in parse() with exactly the same accept/reject semantics
+    static final String PHONENUMBER_PATTERN = "^(\\+\\d{2})-(\\d{2,3})-(\\d{4,})$";
 
     private String countryCode;
 
@@ -25,21 +24,61 @@ public class PhoneNumber {
     private String subscriberNumber;
 
     public PhoneNumber(String phoneNumber) throws IllegalArgumentException {
-        Pattern pattern = Pattern.compile(PHONENUMBER_PATTERN);
-        Matcher matcher = pattern.matcher(phoneNumber);
-        if (!matcher.matches()) {
+        int subscriberSeparator = parse(phoneNumber);
+        if (subscriberSeparator < 0) {
             throw new IllegalArgumentException("Invalid phone number: " + phoneNumber);
         }
 
-        countryCode = matcher.group(1);
-        areaCode = matcher.group(2);
-        subscriberNumber = matcher.group(3);
+        countryCode = phoneNumber.substring(0, 3);
+        areaCode = phoneNumber.substring(4, subscriberSeparator);
+        subscriberNumber = phoneNumber.substring(subscriberSeparator + 1);
     }
 
     public static boolean isValid(String phoneNumber) {
         if (phoneNumber == null)
             return false;
         else
-            return phoneNumber.matches(PHONENUMBER_PATTERN);
+            return parse(phoneNumber) >= 0;
+    }
+
+    /**
+     * Checks phoneNumber against PHONENUMBER_PATTERN without regex matching or allocation.
+     *
+     * @return index of the '-' in front of the subscriber number, -1 if phoneNumber is invalid
+     */
+    private static int parse(String phoneNumber) {
+        int length = phoneNumber.length();
+        // shortest valid number: +CC-AA-NNNN
+        if (length < 11
+                || phoneNumber.charAt(0) != '+'
+                || !isDigit(phoneNumber.charAt(1))
+                || !isDigit(phoneNumber.charAt(2))
+                || phoneNumber.charAt(3) != '-') {
+            return -1;
+        }
+
+        int separator = 4;
+        while (separator < length && isDigit(phoneNumber.charAt(separator))) {
+            separator++;
+        }
+        int areaCodeDigits = separator - 4;
+        if (areaCodeDigits < 2 || areaCodeDigits > 3 || separator == length || phoneNumber.charAt(separator) != '-') {
+            return -1;
+        }
+
+        if (length - separator - 1 < 4) {
+            return -1;
+        }
+        for (int i = separator + 1; i < length; i++) {
+            if (!isDigit(phoneNumber.charAt(i))) {
+                return -1;
+            }
+        }
+        return separator;
+    }
+
+    // \d in java.util.regex only matches ASCII digits, Character.isDigit would also accept other scripts
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
     }
 }
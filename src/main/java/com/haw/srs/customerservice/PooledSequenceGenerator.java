@@ -0,0 +1,37 @@
+package com.haw.srs.customerservice;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * Sequence generator with the pooled optimizer whose allocation size comes from the configuration
+ * ({@code customerservice.ids.allocation-size}) instead of the mapping. One sequence call reserves a whole block of
+ * ids, so inserts need no extra round trip per row and can be sent as JDBC batches. On MySQL the sequence is emulated
+ * by a single-row table, which is then locked once per block instead of once per insert.
+ * <p>
+ * The increment of the database sequence must match the allocation size; the repeatable migration
+ * {@code R__sequence_increment.sql} sets it from the same property.
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+    /**
+     * Hibernate setting the allocation size is read from, filled by {@link IdGenerationConfiguration}.
+     */
+    public static final String ALLOCATION_SIZE = "customerservice.ids.allocation_size";
+
+    public static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+        Object allocationSize = serviceRegistry.requireService(ConfigurationService.class).getSettings().get(ALLOCATION_SIZE);
+        parameters.setProperty(INCREMENT_PARAM, allocationSize == null ? String.valueOf(DEFAULT_ALLOCATION_SIZE) : allocationSize.toString());
+        parameters.setProperty(OPT_PARAM, StandardOptimizerDescriptor.POOLED.getExternalName());
+        super.configure(type, parameters, serviceRegistry);
+    }
+}
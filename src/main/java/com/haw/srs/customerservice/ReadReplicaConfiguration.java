@@ -0,0 +1,89 @@
+package com.haw.srs.customerservice;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Sends {@code @Transactional(readOnly = true)} work to a read replica, everything else to the primary. Enabled by
+ * {@code customerservice.datasource.replica.url}; each pool has its own Hikari settings ({@code spring.datasource.hikari}
+ * and {@code customerservice.datasource.replica.hikari}).
+ * <p>
+ * The connection of a transaction is only fetched on its first statement, when Spring has already marked it read-only;
+ * a read-only transaction nested in a read-write one keeps the primary connection of the outer transaction. While the
+ * {@link ReplicaLagMonitor} reports the replica as lagging or unreachable, read-only transactions use the primary too.
+ * Even a replica within the tolerated lag misses the latest writes, so reads that have to see them run in a read-write
+ * transaction, e.g. {@code CustomerService#findCustomerETagOnPrimary}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty("customerservice.datasource.replica.url")
+public class ReadReplicaConfiguration {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("customerservice.datasource.replica.hikari")
+    HikariDataSource replicaDataSource(@Value("${customerservice.datasource.replica.url}") String url,
+                                       @Value("${customerservice.datasource.replica.username:}") String username,
+                                       @Value("${customerservice.datasource.replica.password:}") String password) {
+        return DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+    }
+
+    @Bean
+    ReplicaLagMonitor replicaLagMonitor(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                        @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                        @Value("${customerservice.datasource.replica.max-lag:PT5S}") Duration maxLag,
+                                        MeterRegistry meterRegistry) {
+        return new ReplicaLagMonitor(primaryDataSource, replicaDataSource, maxLag, meterRegistry);
+    }
+
+    // the data source of JPA, Flyway and every JdbcTemplate
+    @Bean
+    @Primary
+    DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                          @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                          ReplicaLagMonitor replicaLagMonitor) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(new ReplicaFallbackDataSource(primaryDataSource, replicaDataSource, replicaLagMonitor));
+        return dataSource;
+    }
+
+    private static final class ReplicaFallbackDataSource extends AbstractRoutingDataSource {
+
+        private final ReplicaLagMonitor replicaLagMonitor;
+
+        ReplicaFallbackDataSource(DataSource primaryDataSource, DataSource replicaDataSource, ReplicaLagMonitor replicaLagMonitor) {
+            this.replicaLagMonitor = replicaLagMonitor;
+            setTargetDataSources(Map.of("primary", primaryDataSource, "replica", replicaDataSource));
+            afterPropertiesSet();
+        }
+
+        @Override
+        protected Object determineCurrentLookupKey() {
+            return replicaLagMonitor.isReplicaUsable() ? "replica" : "primary";
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.haw.srs.customerservice;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Decides whether read-only transactions may use the replica. A heartbeat timestamp is written on the primary and
+ * read back from the replica; the replica is used while the difference stays below the maximum lag. Both timestamps
+ * come from this clock, so the database clocks do not matter. Until the first check succeeds, and whenever the
+ * replica cannot be reached, reads go to the primary.
+ */
+public class ReplicaLagMonitor {
+
+    private final Log log = LogFactory.getLog(getClass());
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final Duration maxLag;
+
+    private volatile Duration lag;
+    private volatile boolean replicaUsable;
+
+    public ReplicaLagMonitor(DataSource primaryDataSource, DataSource replicaDataSource, Duration maxLag,
+                             MeterRegistry meterRegistry) {
+        this.primary = new JdbcTemplate(primaryDataSource);
+        this.replica = new JdbcTemplate(replicaDataSource);
+        this.maxLag = maxLag;
+
+        Gauge.builder("datasource.replica.lag", this, monitor -> monitor.lag == null ? Double.NaN : monitor.lag.toMillis() / 1000.0)
+                .description("Replication lag of the read replica as of the last heartbeat")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("datasource.replica.usable", this, monitor -> monitor.replicaUsable ? 1 : 0)
+                .description("1 while read-only transactions are routed to the replica, 0 while they fall back to the primary")
+                .register(meterRegistry);
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    @Scheduled(fixedDelayString = "${customerservice.datasource.replica.lag-check-interval:PT1S}")
+    public void check() {
+        boolean usable;
+        try {
+            Instant now = Instant.now();
+            primary.update("update replication_heartbeat set beat_at = ? where id = 1", Timestamp.from(now));
+            Timestamp replicated = replica.queryForObject("select beat_at from replication_heartbeat where id = 1",
+                    Timestamp.class);
+            lag = replicated == null ? null : Duration.between(replicated.toInstant(), now);
+            usable = lag != null && lag.compareTo(maxLag) <= 0;
+        } catch (DataAccessException e) {
+            log.debug("Replica lag check failed", e);
+            lag = null;
+            usable = false;
+        }
+        if (usable != replicaUsable) {
+            log.warn(usable ? "Replica caught up, read-only transactions use it again"
+                    : (lag == null ? "Replica unreachable" : "Replica lags by " + lag) + ", read-only transactions use the primary");
+        }
+        replicaUsable = usable;
+    }
+}
@@ -0,0 +1,75 @@
+package com.haw.srs.customerservice.Repo;
+
+import com.haw.srs.customerservice.CourseParticipants;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CourseParticipantsRepository extends JpaRepository<CourseParticipants, Long> {
+
+    // participant count per course, aggregated from the join table
+    interface MembershipCount {
+        Long getCourseId();
+
+        long getParticipants();
+    }
+
+    @Query(value = "select course_id as courseId, count(*) as participants from customer_courses "
+            + "where course_id in (:courseIds) group by course_id", nativeQuery = true)
+    List<MembershipCount> countMemberships(@Param("courseIds") Collection<Long> courseIds);
+
+    /**
+     * Materializes the count of a course from its current memberships, unless it is materialized already.
+     *
+     * @return 1 if the row was inserted, 0 if it existed or the course does not exist
+     */
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "course_participants"))
+    @Query(value = "insert into course_participants (course_id, participants) "
+            + "select c.id, (select count(*) from customer_courses m where m.course_id = c.id) from course c "
+            + "where c.id = :courseId and not exists (select 1 from course_participants p where p.course_id = c.id)",
+            nativeQuery = true)
+    int insertCounted(@Param("courseId") Long courseId);
+
+    // sets the count of a course back to its memberships, for a count that no longer matches them
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "course_participants"))
+    @Query(value = "update course_participants set participants = "
+            + "(select count(*) from customer_courses m where m.course_id = :courseId) where course_id = :courseId",
+            nativeQuery = true)
+    int recount(@Param("courseId") Long courseId);
+
+    // the count is only changed by these single statement updates, never by read-modify-write
+    @Modifying(flushAutomatically = true)
+    @Query("update CourseParticipants p set p.participants = p.participants + :delta "
+            + "where p.courseId = :courseId and p.participants + :delta >= 0")
+    int addParticipants(@Param("courseId") Long courseId, @Param("delta") int delta);
+
+    /**
+     * Takes seats of a course if it has enough left. The capacity check and the increment are one conditional
+     * update of a single row, so concurrent enrollments can neither oversell nor need a lock beyond that row.
+     *
+     * @return 1 if the seats were taken, 0 if the course is full or its count is not materialized yet
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update CourseParticipants p set p.participants = p.participants + :seats where p.courseId = :courseId "
+            + "and not exists (select c.id from Course c where c.id = :courseId and c.capacity < p.participants + :seats)")
+    int allocateSeats(@Param("courseId") Long courseId, @Param("seats") int seats);
+
+    // courses both customers are members of lose one participant when the memberships are merged
+    @Query("select fc.id from Customer f join f.courses fc where f.id = :fromId and fc.id in "
+            + "(select tc.id from Customer t join t.courses tc where t.id = :toId)")
+    List<Long> findSharedCourseIds(@Param("fromId") Long fromCustomerId, @Param("toId") Long toCustomerId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update CourseParticipants p set p.participants = p.participants - 1 where p.participants > 0 and p.courseId in :courseIds")
+    int decrementParticipants(@Param("courseIds") Collection<Long> courseIds);
+}
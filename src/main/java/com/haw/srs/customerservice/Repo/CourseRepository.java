@@ -1,12 +1,38 @@
 package com.haw.srs.customerservice.Repo;
 
 import com.haw.srs.customerservice.Course;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CourseRepository extends JpaRepository<Course, Long> {
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = Course.NAME_QUERY_CACHE_REGION)})
     Optional<Course> findCourseByName(String name);
+
+    // keyset pagination: only the page size is taken from the pageable, the offset stays 0
+    List<Course> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    /**
+     * Read projections of a keyset page with the materialized participant counts, in one statement. The count is
+     * null for courses whose count is not materialized yet.
+     */
+    @Query("select new com.haw.srs.customerservice.Repo.CourseView(c.id, c.name, c.capacity, p.participants, c.version) "
+            + "from Course c left join CourseParticipants p on p.courseId = c.id where c.id > :afterId order by c.id")
+    List<CourseView> findViewsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // serializes the first change of a course's participant count, see ParticipantCountService
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Course> findWithLockById(Long id);
 }
@@ -0,0 +1,10 @@
+package com.haw.srs.customerservice.Repo;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Course as listed within a customer: only what identifies it, the participant count is left to the course itself.
+ * The version only goes into the ETag of the customer.
+ */
+public record CourseSummary(Long id, String name, @JsonIgnore Long version) {
+}
@@ -0,0 +1,20 @@
+package com.haw.srs.customerservice.Repo;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.haw.srs.customerservice.Course;
+
+/**
+ * Course as returned by the read endpoints. {@code anzahlTeilnehmer} is null when selected from a course whose
+ * participant count is not materialized yet, see {@link #withAnzahlTeilnehmer(int)}. The version only goes into the
+ * ETag.
+ */
+public record CourseView(Long id, String name, Integer capacity, Integer anzahlTeilnehmer, @JsonIgnore Long version) {
+
+    public static CourseView of(Course course, int anzahlTeilnehmer) {
+        return new CourseView(course.getId(), course.getName(), course.getCapacity(), anzahlTeilnehmer, course.getVersion());
+    }
+
+    public CourseView withAnzahlTeilnehmer(int anzahlTeilnehmer) {
+        return new CourseView(id, name, capacity, anzahlTeilnehmer, version);
+    }
+}
@@ -1,18 +1,191 @@
 package com.haw.srs.customerservice.Repo;
 
 import com.haw.srs.customerservice.Customer;
+import com.haw.srs.customerservice.Exception.AmbiguousLastNameException;
+import com.haw.srs.customerservice.Gender;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface CustomerRepository extends JpaRepository<Customer, Long> {
+public interface CustomerRepository extends JpaRepository<Customer, Long>, JpaSpecificationExecutor<Customer> {
 
-    Optional<Customer> findByLastName(String lastName);
+    /**
+     * The only customer with the last name, including its courses.
+     *
+     * @throws AmbiguousLastNameException if several customers have the last name
+     */
+    default Optional<Customer> findByLastName(String lastName) {
+        return findIdByLastName(lastName).flatMap(this::findWithCoursesById);
+    }
 
     Optional<Customer> findCustomerByFirstName(String lastName);
 
+    boolean existsByLastName(String lastName);
+
+    @Query("select c.lastName from Customer c where c.lastName in :lastNames")
+    List<String> findExistingLastNames(@Param("lastNames") Collection<String> lastNames);
+
+    /**
+     * The id of the only customer with the last name.
+     *
+     * @throws AmbiguousLastNameException if several customers have the last name
+     */
+    default Optional<Long> findIdByLastName(String lastName) {
+        // last names are not unique, a second id is enough to tell that the name is ambiguous
+        List<Long> ids = findIdsByLastName(lastName, Limit.of(2));
+        if (ids.size() > 1) {
+            throw new AmbiguousLastNameException(lastName);
+        }
+        return ids.stream().findFirst();
+    }
+
+    @Query("select c.id from Customer c where c.lastName = :lastName order by c.id")
+    List<Long> findIdsByLastName(@Param("lastName") String lastName, Limit limit);
+
    // Optional<Customer> findById(Long id);
 
+    @EntityGraph(Customer.WITH_COURSES)
+    Optional<Customer> findWithCoursesById(Long id);
+
+    // keyset pagination: only the page size is taken from the pageable, the offset stays 0
+    @Query("select c.id from Customer c where c.id > :afterId order by c.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @EntityGraph(Customer.WITH_COURSES)
+    List<Customer> findWithCoursesByIdInOrderByIdAsc(Collection<Long> ids);
+
+    @EntityGraph(Customer.WITH_COURSES)
+    List<Customer> findWithCoursesByLastNameIn(Collection<String> lastNames);
+
+    /**
+     * Keyset page including the courses of every customer. The page is limited on the ids first and the courses are
+     * fetched for exactly these ids, since limiting a collection fetch join would paginate in memory.
+     */
+    default List<Customer> findPageAfter(Long afterId, Pageable pageable) {
+        List<Long> ids = findIdsAfter(afterId, pageable);
+        return ids.isEmpty() ? List.of() : findWithCoursesByIdInOrderByIdAsc(ids);
+    }
+
+    // flat row of the read projection: the customer columns repeated for each of its courses
+    interface CustomerCourseRow {
+        Long getId();
+
+        String getFirstName();
+
+        String getLastName();
+
+        Gender getGender();
+
+        String getEmail();
+
+        String getCountryCode();
+
+        String getAreaCode();
+
+        String getSubscriberNumber();
+
+        Long getCourseId();
+
+        String getCourseName();
+
+        Long getVersion();
+
+        Long getCourseVersion();
+    }
+
+    @Query("select c.id as id, c.firstName as firstName, c.lastName as lastName, c.gender as gender, c.email as email, "
+            + "c.phoneNumber.countryCode as countryCode, c.phoneNumber.areaCode as areaCode, "
+            + "c.phoneNumber.subscriberNumber as subscriberNumber, co.id as courseId, co.name as courseName, "
+            + "c.version as version, co.version as courseVersion "
+            + "from Customer c left join c.courses co where c.id in :ids order by c.id, co.id")
+    List<CustomerCourseRow> findRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Read projections of the given customers in id order, in one statement selecting only the columns the JSON
+     * shows. No entity is loaded into the persistence context.
+     */
+    default List<CustomerView> findViewsByIdIn(Collection<Long> ids) {
+        return ids.isEmpty() ? List.of() : CustomerView.of(findRowsByIdIn(ids));
+    }
+
+    default Optional<CustomerView> findViewById(Long id) {
+        return findViewsByIdIn(List.of(id)).stream().findFirst();
+    }
+
+    // keyset page of read projections, limited on the ids first like findPageAfter
+    default List<CustomerView> findViewPageAfter(Long afterId, Pageable pageable) {
+        return findViewsByIdIn(findIdsAfter(afterId, pageable));
+    }
+
+    // what the ETag of a customer is derived from, see com.haw.srs.customerservice.Service.ETags
+    interface VersionStamp {
+        Long getVersion();
+
+        Long getCourseVersions();
+    }
+
+    /**
+     * Versions of the customer and the sum of its courses' versions in one aggregate, without selecting the customer's
+     * columns or loading anything into the persistence context.
+     */
+    @Query("select c.version as version, coalesce(sum(co.version), 0L) as courseVersions "
+            + "from Customer c left join c.courses co where c.id = :id group by c.id, c.version")
+    Optional<VersionStamp> findVersionStampById(@Param("id") Long id);
+
+    /**
+     * Increments the versions of customers whose memberships were written directly on the join table below, so their
+     * ETags change like after a membership change through the entity.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update Customer c set c.version = c.version + 1 where c.id in :ids")
+    int incrementVersions(@Param("ids") Collection<Long> ids);
+
+    // memberships written directly on the join table; the query space hint keeps hibernate from invalidating
+    // every second-level cache region after these native statements
+
+    /**
+     * Gives the target customer every course of the source customer it is not yet a member of.
+     *
+     * @return number of memberships inserted
+     */
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "customer_courses"))
+    @Query(value = "insert into customer_courses (customer_id, course_id) "
+            + "select :toId, f.course_id from customer_courses f where f.customer_id = :fromId "
+            + "and not exists (select 1 from customer_courses t where t.customer_id = :toId and t.course_id = f.course_id)",
+            nativeQuery = true)
+    int copyMissingMemberships(@Param("fromId") Long fromCustomerId, @Param("toId") Long toCustomerId);
+
+    /**
+     * Makes the customer a member of the course, unless it is one already.
+     *
+     * @return 1 if the membership was inserted
+     */
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "customer_courses"))
+    @Query(value = "insert into customer_courses (customer_id, course_id) select :customerId, c.id from course c "
+            + "where c.id = :courseId "
+            + "and not exists (select 1 from customer_courses m where m.customer_id = :customerId and m.course_id = c.id)",
+            nativeQuery = true)
+    int insertMembership(@Param("customerId") Long customerId, @Param("courseId") Long courseId);
+
+    // clears the persistence context, loaded course collections would be stale afterwards
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "customer_courses"))
+    @Query(value = "delete from customer_courses where customer_id = :customerId", nativeQuery = true)
+    int deleteMemberships(@Param("customerId") Long customerId);
+
 }
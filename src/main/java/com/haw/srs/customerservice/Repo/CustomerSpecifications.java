@@ -0,0 +1,61 @@
+package com.haw.srs.customerservice.Repo;
+
+import com.haw.srs.customerservice.Course;
+import com.haw.srs.customerservice.Customer;
+import com.haw.srs.customerservice.Gender;
+import jakarta.persistence.criteria.Join;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Composable filters for {@link CustomerRepository#findBy}. Each filter is answered by an index: name prefixes by
+ * idx_customer_last_name/idx_customer_first_name (prefix LIKE, case-sensitive), email by idx_customer_email and the
+ * course by the (course_id, customer_id) index of customer_courses.
+ */
+public final class CustomerSpecifications {
+
+    private static final char ESCAPE = '\\';
+
+    private CustomerSpecifications() {
+    }
+
+    public static Specification<Customer> lastNameStartsWith(String prefix) {
+        return (root, query, cb) -> cb.like(root.get("lastName"), likePrefix(prefix), ESCAPE);
+    }
+
+    public static Specification<Customer> firstNameStartsWith(String prefix) {
+        return (root, query, cb) -> cb.like(root.get("firstName"), likePrefix(prefix), ESCAPE);
+    }
+
+    public static Specification<Customer> hasEmail(String email) {
+        return (root, query, cb) -> cb.equal(root.get("email"), email);
+    }
+
+    public static Specification<Customer> hasGender(Gender gender) {
+        return (root, query, cb) -> cb.equal(root.get("gender"), gender);
+    }
+
+    public static Specification<Customer> enrolledIn(Long courseId) {
+        // a customer is member of a course at most once, the join cannot duplicate rows
+        return (root, query, cb) -> {
+            Join<Customer, Course> courses = root.join("courses");
+            return cb.equal(courses.get("id"), courseId);
+        };
+    }
+
+    // keyset pagination, see KeysetPaging
+    public static Specification<Customer> idGreaterThan(Long afterId) {
+        return (root, query, cb) -> cb.greaterThan(root.get("id"), afterId);
+    }
+
+    private static String likePrefix(String prefix) {
+        StringBuilder pattern = new StringBuilder(prefix.length() + 1);
+        for (int i = 0; i < prefix.length(); i++) {
+            char c = prefix.charAt(i);
+            if (c == '%' || c == '_' || c == ESCAPE) {
+                pattern.append(ESCAPE);
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+}
@@ -0,0 +1,43 @@
+package com.haw.srs.customerservice.Repo;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.haw.srs.customerservice.Gender;
+import com.haw.srs.customerservice.PhoneNumber;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Customer as returned by the read endpoints, assembled from {@link CustomerRepository.CustomerCourseRow}s instead
+ * of serializing the entity and its course graph. The version only goes into the ETag.
+ */
+public record CustomerView(Long id, String firstName, String lastName, Gender gender, String email,
+                           PhoneNumber phoneNumber, List<CourseSummary> courses, @JsonIgnore Long version) {
+
+    /**
+     * One view per customer, in the order the customers first appear in the rows.
+     */
+    static List<CustomerView> of(List<? extends CustomerRepository.CustomerCourseRow> rows) {
+        Map<Long, CustomerView> customers = new LinkedHashMap<>();
+        for (CustomerRepository.CustomerCourseRow row : rows) {
+            CustomerView customer = customers.computeIfAbsent(row.getId(), id -> new CustomerView(id,
+                    row.getFirstName(), row.getLastName(), row.getGender(), row.getEmail(), phoneNumberOf(row),
+                    new ArrayList<>(), row.getVersion()));
+            // left join: a customer without courses comes as a single row without course
+            if (row.getCourseId() != null) {
+                customer.courses().add(new CourseSummary(row.getCourseId(), row.getCourseName(), row.getCourseVersion()));
+            }
+        }
+        return new ArrayList<>(customers.values());
+    }
+
+    // hibernate reads an embeddable with only null columns as null, so does the view
+    private static PhoneNumber phoneNumberOf(CustomerRepository.CustomerCourseRow row) {
+        if (row.getCountryCode() == null && row.getAreaCode() == null && row.getSubscriberNumber() == null) {
+            return null;
+        }
+        return new PhoneNumber(row.getCountryCode(), row.getAreaCode(), row.getSubscriberNumber());
+    }
+}
@@ -0,0 +1,36 @@
+package com.haw.srs.customerservice.Repo;
+
+import com.haw.srs.customerservice.EnrollmentRequest;
+import com.haw.srs.customerservice.Service.BulkEnrollmentResult;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface EnrollmentRequestRepository extends JpaRepository<EnrollmentRequest, String> {
+
+    /**
+     * Claims the key for the current transaction. A concurrent submission with the same key blocks on the primary
+     * key until this transaction ends and then fails with a duplicate key, or succeeds if this one rolled back.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "enrollment_request"))
+    @Query(value = "insert into enrollment_request (idempotency_key, course_id, last_name, created_at) "
+            + "values (:key, :courseId, :lastName, :createdAt)", nativeQuery = true)
+    int claim(@Param("key") String key, @Param("courseId") Long courseId, @Param("lastName") String lastName,
+              @Param("createdAt") Instant createdAt);
+
+    @Modifying
+    @Query("update EnrollmentRequest r set r.status = :status where r.idempotencyKey = :key")
+    int complete(@Param("key") String key, @Param("status") BulkEnrollmentResult.Status status);
+
+    @Modifying
+    @Query("delete from EnrollmentRequest r where r.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") Instant before);
+}
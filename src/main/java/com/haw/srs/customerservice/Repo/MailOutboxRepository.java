@@ -0,0 +1,55 @@
+package com.haw.srs.customerservice.Repo;
+
+import com.haw.srs.customerservice.MailOutboxMessage;
+import com.haw.srs.customerservice.MailStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MailOutboxRepository extends JpaRepository<MailOutboxMessage, Long> {
+
+    // due: pending and no longer backed off, or claimed by a dispatcher whose lease ran out
+    @Query("select m.id from MailOutboxMessage m where m.status in (com.haw.srs.customerservice.MailStatus.PENDING, "
+            + "com.haw.srs.customerservice.MailStatus.SENDING) and m.nextAttemptAt <= :now order by m.id")
+    List<Long> findDueIds(@Param("now") Instant now, Pageable pageable);
+
+    /**
+     * Claims those of the messages that are still due for the given dispatcher until the lease ends. A message a
+     * concurrent dispatcher claimed first is no longer due when the row lock is released, so it is skipped here.
+     *
+     * @return number of messages claimed
+     */
+    @Modifying
+    @Query("update MailOutboxMessage m set m.status = com.haw.srs.customerservice.MailStatus.SENDING, "
+            + "m.claimedBy = :token, m.nextAttemptAt = :leaseUntil where m.id in :ids "
+            + "and m.status in (com.haw.srs.customerservice.MailStatus.PENDING, com.haw.srs.customerservice.MailStatus.SENDING) "
+            + "and m.nextAttemptAt <= :now")
+    int claim(@Param("ids") Collection<Long> ids, @Param("token") String token, @Param("now") Instant now,
+              @Param("leaseUntil") Instant leaseUntil);
+
+    List<MailOutboxMessage> findByClaimedByOrderByIdAsc(String claimedBy);
+
+    /**
+     * Releases a message the dispatcher failed to send, with the outcome of the attempt, unless its claim was lost.
+     *
+     * @return 0 if another dispatcher claimed the message meanwhile
+     */
+    @Modifying
+    @Query("update MailOutboxMessage m set m.status = :status, m.attempts = :attempts, m.nextAttemptAt = :nextAttemptAt, "
+            + "m.lastError = :lastError, m.claimedBy = null where m.id = :id and m.claimedBy = :token")
+    int reschedule(@Param("id") Long id, @Param("token") String token, @Param("status") MailStatus status,
+                   @Param("attempts") int attempts, @Param("nextAttemptAt") Instant nextAttemptAt,
+                   @Param("lastError") String lastError);
+
+    long countByStatusIn(Collection<MailStatus> statuses);
+
+    long countByStatus(MailStatus status);
+}
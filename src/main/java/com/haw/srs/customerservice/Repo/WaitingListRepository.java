@@ -0,0 +1,35 @@
+package com.haw.srs.customerservice.Repo;
+
+import com.haw.srs.customerservice.WaitingListEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WaitingListRepository extends JpaRepository<WaitingListEntry, Long> {
+
+    // entries after the given one, so that entries claimed concurrently (but still in this transaction's snapshot)
+    // are not picked again
+    Optional<WaitingListEntry> findFirstByCourseIdAndIdGreaterThanOrderByIdAsc(Long courseId, Long afterId);
+
+    boolean existsByCourseIdAndCustomerId(Long courseId, Long customerId);
+
+    long countByCourseId(Long courseId);
+
+    @Query("select e.customerId from WaitingListEntry e where e.courseId = :courseId order by e.id")
+    List<Long> findCustomerIdsByCourseId(@Param("courseId") Long courseId);
+
+    /**
+     * Takes an entry off the waiting list. Of concurrent promotions picking the same entry only one deletes it.
+     *
+     * @return 1 if this call removed the entry, 0 if it was already gone
+     */
+    @Modifying
+    @Query("delete from WaitingListEntry e where e.id = :id")
+    int claim(@Param("id") Long id);
+}
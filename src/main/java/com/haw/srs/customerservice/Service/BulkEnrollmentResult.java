@@ -0,0 +1,17 @@
+package com.haw.srs.customerservice.Service;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk enrollment, one item per requested customer id or last name in request order.
+ */
+public record BulkEnrollmentResult(Long courseId, int enrolled, List<Item> items) {
+
+    public enum Status {
+        // WAITING: the course is full, the customer is on its waiting list
+        ENROLLED, ALREADY_ENROLLED, NOT_FOUND, WAITING
+    }
+
+    public record Item(String customer, Status status) {
+    }
+}
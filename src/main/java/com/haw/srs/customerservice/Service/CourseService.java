@@ -5,16 +5,35 @@ import com.haw.srs.customerservice.Customer;
 import com.haw.srs.customerservice.Exception.CourseNotFoundException;
 import com.haw.srs.customerservice.Exception.CustomerNotFoundException;
 import com.haw.srs.customerservice.Exception.MembershipMailNotSent;
+import com.haw.srs.customerservice.Exception.PreconditionFailedException;
 import com.haw.srs.customerservice.MailGateway;
+import com.haw.srs.customerservice.MetricsConfiguration;
 import com.haw.srs.customerservice.Repo.CourseRepository;
+import com.haw.srs.customerservice.Repo.CourseView;
 import com.haw.srs.customerservice.Repo.CustomerRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 @Service
+@Timed(MetricsConfiguration.SERVICE_TIMER)
 public class CourseService {
 
+    // upper bound for the number of values in one IN clause
+    private static final int BULK_QUERY_CHUNK = 1000;
+
     @Autowired
     private CustomerRepository customerRepository;
     @Autowired
@@ -23,38 +42,243 @@ public class CourseService {
     @Autowired
     private MailGateway mailGateway;
 
+    @Autowired
+    private ParticipantCountService participantCountService;
+
+    @Autowired
+    private WaitingListService waitingListService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // monotonic, the enrollment rate is derived by the scraper (e.g. rate(course_enrollments_total[1m]))
+    private Counter enrollmentCounter;
+    private Counter cancellationCounter;
+
+    @PostConstruct
+    void registerMeters() {
+        enrollmentCounter = Counter.builder("course.enrollments")
+                .description("Customers enrolled into a course")
+                .register(meterRegistry);
+        cancellationCounter = Counter.builder("course.cancellations")
+                .description("Course memberships cancelled")
+                .register(meterRegistry);
+    }
+
     @Transactional
-    public void enrollInCourse(String lastName, Course course) throws CustomerNotFoundException {
+    public Course createCourse(Course course) {
+        Course created = courseRepository.save(course);
+        participantCountService.create(created.getId());
+        return created;
+    }
+
+    // the course itself comes from the second-level cache, only the count is read from the database
+    @Transactional(readOnly = true)
+    public CourseView findCourseView(Long courseNumber) throws CourseNotFoundException {
+        Course course = courseRepository.findById(courseNumber).orElseThrow(() -> new CourseNotFoundException(courseNumber));
+        return CourseView.of(course, participantCountService.of(courseNumber));
+    }
+
+    /**
+     * Like {@link #findCourseView}, but in a read-write transaction, which is never routed to a read replica: for
+     * reads that have to see a write just committed.
+     */
+    @Transactional
+    public CourseView findCourseViewOnPrimary(Long courseNumber) throws CourseNotFoundException {
+        return findCourseView(courseNumber);
+    }
+
+    // customer ids in the order they get free seats; one read-only transaction, i.e. one replica connection
+    @Transactional(readOnly = true)
+    public List<Long> findWaitingList(Long courseNumber) throws CourseNotFoundException {
+        if (!courseRepository.existsById(courseNumber)) {
+            throw new CourseNotFoundException(courseNumber);
+        }
+        return waitingListService.waitingCustomers(courseNumber);
+    }
+
+    /**
+     * Keyset page of courses with their participant counts. Courses without a materialized count are counted from
+     * the memberships, see {@link ParticipantCountService#of(java.util.Collection)}.
+     */
+    @Transactional(readOnly = true)
+    public List<CourseView> findCourseViews(Long afterId, Pageable pageable) {
+        List<CourseView> courses = courseRepository.findViewsAfter(afterId, pageable);
+        List<Long> uncounted = courses.stream().filter(course -> course.anzahlTeilnehmer() == null).map(CourseView::id).toList();
+        if (uncounted.isEmpty()) {
+            return courses;
+        }
+        Map<Long, Integer> counts = participantCountService.of(uncounted);
+        return courses.stream()
+                .map(course -> course.anzahlTeilnehmer() != null ? course
+                        : course.withAnzahlTeilnehmer(counts.getOrDefault(course.id(), 0)))
+                .toList();
+    }
+
+    /**
+     * Enrolls the customer if the course has a free seat, otherwise puts it on the waiting list of the course.
+     */
+    @Transactional
+    public BulkEnrollmentResult.Status enrollInCourse(String lastName, Course course) throws CustomerNotFoundException {
         Customer customer = customerRepository
                 .findByLastName(lastName)
                 .orElseThrow(() -> new CustomerNotFoundException(lastName));
-        course.setAnzahlTeilnehmer(course.getAnzahlTeilnehmer() + 1);
+        Course managedCourse = course.getId() == null
+                ? createCourse(course)
+                : courseRepository.getReferenceById(course.getId());
+        if (customer.getCourses().contains(managedCourse)) {
+            return BulkEnrollmentResult.Status.ALREADY_ENROLLED;
+        }
+        if (!participantCountService.allocate(managedCourse.getId(), 1)) {
+            waitingListService.enqueue(managedCourse.getId(), customer.getId());
+            return BulkEnrollmentResult.Status.WAITING;
+        }
+        // the seat is taken first, its row lock is then only held for the membership insert and the commit
+        customer.addCourse(managedCourse);
+        customerRepository.save(customer);
+        course.setAnzahlTeilnehmer(participantCountService.of(managedCourse.getId()));
+        enrollmentCounter.increment();
+        return BulkEnrollmentResult.Status.ENROLLED;
+    }
+
+    /**
+     * Renames the course and sets its capacity. Seats added by a raised capacity go to the waiting list; a lowered
+     * capacity keeps the current members and only applies to later enrollments. With an {@code ifMatch} (the
+     * {@code If-Match} header, may be null) only if the course's current ETag satisfies it.
+     */
+    @Transactional
+    public Course updateCourse(Long courseNumber, String name, Integer capacity, String ifMatch)
+            throws CourseNotFoundException, PreconditionFailedException {
+        Course course = courseRepository.findById(courseNumber).orElseThrow(() -> new CourseNotFoundException(courseNumber));
+        if (ifMatch != null) {
+            String eTag = ETags.of(CourseView.of(course, participantCountService.of(courseNumber)));
+            if (!ETags.matches(ifMatch, eTag)) {
+                throw new PreconditionFailedException(eTag);
+            }
+        }
+        course.setName(name);
+        course.setCapacity(capacity);
         courseRepository.save(course);
+        waitingListService.promote(course.getId());
+        // counted within the update, from the primary, as the response and its ETag have to include the promotions
+        return participantCountService.fill(course);
+    }
+
+    /**
+     * Enrolls many customers, given by id and/or last name, into one course in a single transaction. Customers are
+     * loaded with their courses in a few IN queries and the memberships are written as JDBC batch inserts into
+     * customer_courses on flush. Unknown customers and existing memberships are reported, not treated as errors.
+     */
+    @Transactional
+    public BulkEnrollmentResult enrollAllInCourse(Long courseNumber, List<Long> customerIds, List<String> lastNames) throws CourseNotFoundException {
+        Course course = courseRepository.findById(courseNumber).orElseThrow(() -> new CourseNotFoundException(courseNumber));
+
+        Map<Long, Customer> customersById = new HashMap<>();
+        partition(customerIds).forEach(ids -> customerRepository.findWithCoursesByIdInOrderByIdAsc(ids)
+                .forEach(customer -> customersById.put(customer.getId(), customer)));
+        Map<String, Customer> customersByLastName = new HashMap<>();
+        partition(lastNames).forEach(names -> customerRepository.findWithCoursesByLastNameIn(names)
+                .forEach(customer -> customersByLastName.putIfAbsent(customer.getLastName(), customer)));
+
+        // seats for all new members in one conditional update if the course has enough, otherwise seat by seat
+        Set<Customer> newMembers = new HashSet<>();
+        customersById.values().stream().filter(customer -> !customer.getCourses().contains(course)).forEach(newMembers::add);
+        customersByLastName.values().stream().filter(customer -> !customer.getCourses().contains(course)).forEach(newMembers::add);
+        Seats seats = new Seats(course.getId(), !newMembers.isEmpty() && participantCountService.allocate(course.getId(), newMembers.size())
+                ? newMembers.size()
+                : 0);
+
+        List<BulkEnrollmentResult.Item> items = new ArrayList<>(customerIds.size() + lastNames.size());
+        customerIds.forEach(id -> items.add(enroll(String.valueOf(id), customersById.get(id), course, seats)));
+        lastNames.forEach(lastName -> items.add(enroll(lastName, customersByLastName.get(lastName), course, seats)));
+
+        int enrolled = (int) items.stream().filter(item -> item.status() == BulkEnrollmentResult.Status.ENROLLED).count();
+        if (enrolled > 0) {
+            enrollmentCounter.increment(enrolled);
+        }
+        return new BulkEnrollmentResult(course.getId(), enrolled, items);
+    }
+
+    private BulkEnrollmentResult.Item enroll(String key, Customer customer, Course course, Seats seats) {
+        if (customer == null) {
+            return new BulkEnrollmentResult.Item(key, BulkEnrollmentResult.Status.NOT_FOUND);
+        }
+        if (customer.getCourses().contains(course)) {
+            return new BulkEnrollmentResult.Item(key, BulkEnrollmentResult.Status.ALREADY_ENROLLED);
+        }
+        if (!seats.take()) {
+            waitingListService.enqueue(course.getId(), customer.getId());
+            return new BulkEnrollmentResult.Item(key, BulkEnrollmentResult.Status.WAITING);
+        }
         customer.addCourse(course);
-        customerRepository.save(customer);
+        return new BulkEnrollmentResult.Item(key, BulkEnrollmentResult.Status.ENROLLED);
+    }
+
+    // seats taken in advance for a bulk enrollment, further ones are allocated one at a time until the course is full
+    private final class Seats {
+
+        private final Long courseId;
+        private int allocated;
+        private boolean full;
+
+        Seats(Long courseId, int allocated) {
+            this.courseId = courseId;
+            this.allocated = allocated;
+        }
+
+        boolean take() {
+            if (allocated > 0) {
+                allocated--;
+                return true;
+            }
+            full = full || !participantCountService.allocate(courseId, 1);
+            return !full;
+        }
+    }
+
+    private static <T> List<List<T>> partition(List<T> values) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < values.size(); from += BULK_QUERY_CHUNK) {
+            chunks.add(values.subList(from, Math.min(from + BULK_QUERY_CHUNK, values.size())));
+        }
+        return chunks;
     }
 
+    /**
+     * Moves all course memberships of one customer to another. Courses both customers are members of are kept once
+     * and lose one participant, whose seat goes to the customer waiting longest. Runs as set-based statements on the
+     * join table, the course counters and the versions of both customers, neither customer nor their courses are
+     * loaded.
+     */
     @Transactional
     public void transferCourses(String fromCustomerLastName, String toCustomerLastName) throws CustomerNotFoundException {
-        Customer from = customerRepository
-                .findByLastName(fromCustomerLastName)
+        Long from = customerRepository
+                .findIdByLastName(fromCustomerLastName)
                 .orElseThrow(() -> new CustomerNotFoundException(fromCustomerLastName));
-        Customer to = customerRepository
-                .findByLastName(toCustomerLastName)
+        Long to = customerRepository
+                .findIdByLastName(toCustomerLastName)
                 .orElseThrow(() -> new CustomerNotFoundException(toCustomerLastName));
+        if (from.equals(to)) {
+            return;
+        }
 
-        to.getCourses().addAll(from.getCourses());
-        from.getCourses().clear();
-        //wenn übereinstimmung der kurse anzahlteilnehmer updaten
-        customerRepository.save(from);
-        customerRepository.save(to);
+        // counters first, the shared courses are only known while both memberships still exist
+        List<Long> shared = participantCountService.removeShared(from, to);
+        customerRepository.copyMissingMemberships(from, to);
+        customerRepository.deleteMemberships(from);
+        customerRepository.incrementVersions(List.of(from, to));
+        // a shared course has a seat less taken, it goes to the customer waiting longest
+        shared.forEach(waitingListService::promote);
     }
 
     /**
-     * Cancels a course membership. An Email is sent to all possible participants on the waiting list for this course.
+     * Cancels a course membership. The freed seat goes to the customer waiting longest on the waiting list of the
+     * course, who is enrolled in the same transaction and gets an Email about it.
      * If customer is not member of the provided course, the operation is ignored.
+     * Mails are put into the outbox and sent asynchronously by the {@link com.haw.srs.customerservice.MailOutboxDispatcher}.
      *
      * @throws IllegalArgumentException if customerNumber==null or courseNumber==null
+     * @throws MembershipMailNotSent if the customer has no mail address the cancellation could be sent to
      */
     @Transactional
     public void cancelMembership(Long customerNumber, Long courseNumber) throws CustomerNotFoundException, CourseNotFoundException, MembershipMailNotSent {
@@ -71,18 +295,19 @@ public class CourseService {
         }
 
         String customerMail = customer.getEmail();
-
-        boolean mailWasSent = mailGateway.sendMail(customerMail, "Oh, we're sorry that you canceled your membership!", "Some text to make her/him come back again...");
-        if (!mailWasSent) {
-            // do some error handling here (including e.g. transaction rollback, etc.)
-            // ...
-            
+        if (customerMail == null) {
             throw new MembershipMailNotSent(customerMail);
         }
-        course.setAnzahlTeilnehmer(course.getAnzahlTeilnehmer()-1);
+
         customer.removeCourse(course);
         customerRepository.save(customer);
-        courseRepository.save(course);
+        participantCountService.add(courseNumber, -1);
+        waitingListService.promote(courseNumber);
+        course.setAnzahlTeilnehmer(participantCountService.of(courseNumber));
+        cancellationCounter.increment();
+
+        // only queued here and sent after commit, a slow mail server must not hold this transaction open
+        mailGateway.enqueueMail(customerMail, "Oh, we're sorry that you canceled your membership!", "Some text to make her/him come back again...");
     }
 
 //    public Course findCourseByName(String lastName) throws CourseNotFoundException {
@@ -0,0 +1,92 @@
+package com.haw.srs.customerservice.Service;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.haw.srs.customerservice.MetricsConfiguration;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Exports every customer with its courses, one row per membership (customers without courses get one row with empty
+ * course columns). The rows are read from a forward-only JDBC cursor and written to the output stream one by one,
+ * without loading entities, so memory stays the same no matter how many rows are exported.
+ */
+@Service
+@Timed(MetricsConfiguration.SERVICE_TIMER)
+public class CustomerExportService {
+
+    // ordered by the customer primary key only, so no database can need a sort over the whole join
+    private static final String EXPORT_QUERY = "select c.id, c.first_name, c.last_name, c.gender, c.email, co.id, co.name "
+            + "from customer c "
+            + "left join customer_courses cc on cc.customer_id = c.id "
+            + "left join course co on co.id = cc.course_id "
+            + "order by c.id";
+
+    @JsonPropertyOrder({"customerId", "firstName", "lastName", "gender", "email", "courseId", "courseName"})
+    public record ExportRow(Long customerId, String firstName, String lastName, String gender, String email,
+                            Long courseId, String courseName) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectWriter ndjsonWriter;
+    private final ObjectWriter csvWriter;
+
+    @Autowired
+    public CustomerExportService(DataSource dataSource,
+                                 ObjectMapper objectMapper,
+                                 @Value("${customerservice.export.fetch-size:1000}") int fetchSize) {
+        // a template of its own, the fetch size only applies to the export cursor
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        // written rows are flushed by the generator buffer, not after every row
+        this.ndjsonWriter = objectMapper.writerFor(ExportRow.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n");
+        CsvMapper csvMapper = new CsvMapper();
+        this.csvWriter = csvMapper.writerFor(ExportRow.class)
+                .with(csvMapper.schemaFor(ExportRow.class).withHeader())
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * @return number of rows written
+     */
+    public long export(OutputStream out, FileFormat format) throws IOException {
+        long[] rows = {0};
+        try (SequenceWriter writer = (format == FileFormat.CSV ? csvWriter : ndjsonWriter).writeValues(out)) {
+            jdbcTemplate.query(EXPORT_QUERY, resultSet -> {
+                long courseId = resultSet.getLong(6);
+                boolean withoutCourse = resultSet.wasNull();
+                ExportRow row = new ExportRow(resultSet.getLong(1), resultSet.getString(2), resultSet.getString(3),
+                        resultSet.getString(4), resultSet.getString(5),
+                        withoutCourse ? null : courseId, resultSet.getString(7));
+                try {
+                    writer.write(row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            });
+        }
+        if (format == FileFormat.NDJSON && rows[0] > 0) {
+            out.write('\n');
+        }
+        out.flush();
+        return rows[0];
+    }
+}
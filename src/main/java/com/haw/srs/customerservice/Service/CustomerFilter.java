@@ -0,0 +1,33 @@
+package com.haw.srs.customerservice.Service;
+
+import com.haw.srs.customerservice.Customer;
+import com.haw.srs.customerservice.Gender;
+import com.haw.srs.customerservice.Repo.CustomerSpecifications;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Search criteria for customers, all optional and combined with AND. Names are matched by prefix, the email exactly
+ * and {@code course} is the id of a course the customer is enrolled in.
+ */
+public record CustomerFilter(String lastName, String firstName, String email, Gender gender, Long course) {
+
+    public Specification<Customer> toSpecification() {
+        Specification<Customer> specification = Specification.where(null);
+        if (lastName != null && !lastName.isEmpty()) {
+            specification = specification.and(CustomerSpecifications.lastNameStartsWith(lastName));
+        }
+        if (firstName != null && !firstName.isEmpty()) {
+            specification = specification.and(CustomerSpecifications.firstNameStartsWith(firstName));
+        }
+        if (email != null && !email.isEmpty()) {
+            specification = specification.and(CustomerSpecifications.hasEmail(email));
+        }
+        if (gender != null) {
+            specification = specification.and(CustomerSpecifications.hasGender(gender));
+        }
+        if (course != null) {
+            specification = specification.and(CustomerSpecifications.enrolledIn(course));
+        }
+        return specification;
+    }
+}
@@ -0,0 +1,12 @@
+package com.haw.srs.customerservice.Service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * One customer of an import file as read, before validation. CSV files need a header line naming the columns.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonPropertyOrder({"firstName", "lastName", "gender", "email", "phoneNumber"})
+public record CustomerImportRow(String firstName, String lastName, String gender, String email, String phoneNumber) {
+}
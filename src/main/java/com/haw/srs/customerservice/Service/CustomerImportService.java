@@ -0,0 +1,277 @@
+package com.haw.srs.customerservice.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.haw.srs.customerservice.Customer;
+import com.haw.srs.customerservice.Gender;
+import com.haw.srs.customerservice.MetricsConfiguration;
+import com.haw.srs.customerservice.PhoneNumber;
+import com.haw.srs.customerservice.Repo.CustomerRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Creates customers from a CSV or NDJSON stream. The stream is parsed row by row and written in chunks, every chunk
+ * in its own transaction as JDBC batches, and the persistence context is cleared after each chunk. Memory therefore
+ * depends on the chunk size only, not on the size of the file. Invalid rows are reported and skipped, the valid rows
+ * of the file are imported.
+ */
+@Service
+@Timed(MetricsConfiguration.SERVICE_TIMER)
+public class CustomerImportService {
+
+    /**
+     * Rows are numbered from 1 in the order of the file, not counting the CSV header.
+     */
+    public record RowError(long row, String error) {
+    }
+
+    /**
+     * A chunk the database rejected, none of its rows {@code firstRow} to {@code lastRow} is imported.
+     */
+    public record ChunkError(long firstRow, long lastRow, String error) {
+    }
+
+    public record Progress(long processed, long imported, long failed) {
+    }
+
+    /**
+     * Called on the importing thread: for every rejected row, and after every written chunk.
+     */
+    public interface Listener {
+
+        void rowFailed(RowError error);
+
+        void chunkFailed(ChunkError error);
+
+        void progress(Progress progress);
+    }
+
+    private record PendingRow(long row, Customer customer) {
+    }
+
+    // varchar(255) of every customer column, see V1__initial_schema.sql
+    private static final int MAX_COLUMN_LENGTH = 255;
+
+    private final Log log = LogFactory.getLog(getClass());
+
+    private final CustomerRepository customerRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader ndjsonReader;
+    private final ObjectReader csvReader;
+    private final int chunkSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public CustomerImportService(CustomerRepository customerRepository,
+                                 TransactionTemplate transactionTemplate,
+                                 ObjectMapper objectMapper,
+                                 @Value("${customerservice.import.chunk-size:1000}") int chunkSize) {
+        this.customerRepository = customerRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.ndjsonReader = objectMapper.readerFor(CustomerImportRow.class);
+        CsvMapper csvMapper = new CsvMapper();
+        this.csvReader = csvMapper.readerFor(CustomerImportRow.class)
+                .with(CsvSchema.emptySchema().withHeader())
+                .with(CsvParser.Feature.TRIM_SPACES)
+                .with(CsvParser.Feature.SKIP_EMPTY_LINES)
+                .with(CsvParser.Feature.EMPTY_STRING_AS_NULL);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Imports every valid row of the stream. A malformed file (broken CSV quoting, invalid JSON) ends the import
+     * after the chunks written so far, reported as an error of the row that could not be read.
+     *
+     * @return totals of the import
+     */
+    public Progress importCustomers(InputStream in, FileFormat format, Listener listener) throws IOException {
+        ObjectReader reader = format == FileFormat.CSV ? csvReader : ndjsonReader;
+        List<PendingRow> chunk = new ArrayList<>(chunkSize);
+        long processed = 0;
+        long imported = 0;
+        long failed = 0;
+
+        try (MappingIterator<CustomerImportRow> rows = reader.readValues(in)) {
+            while (true) {
+                CustomerImportRow row;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    row = rows.nextValue();
+                } catch (JsonProcessingException e) {
+                    processed++;
+                    failed++;
+                    listener.rowFailed(new RowError(processed, "unreadable row: " + e.getOriginalMessage()));
+                    break;
+                }
+
+                processed++;
+                String error = validate(row);
+                if (error != null) {
+                    failed++;
+                    listener.rowFailed(new RowError(processed, error));
+                } else {
+                    chunk.add(new PendingRow(processed, toCustomer(row)));
+                }
+
+                if (chunk.size() == chunkSize) {
+                    int written = write(chunk, listener);
+                    imported += written;
+                    failed += chunk.size() - written;
+                    chunk.clear();
+                    listener.progress(new Progress(processed, imported, failed));
+                }
+            }
+        }
+
+        int written = write(chunk, listener);
+        imported += written;
+        failed += chunk.size() - written;
+        Progress total = new Progress(processed, imported, failed);
+        listener.progress(total);
+        return total;
+    }
+
+    /**
+     * Saves the chunk in one transaction, skipping last names that already exist in the database or earlier in the
+     * chunk (a customer is identified by its last name, see {@link CustomerService#createCustomer}). A chunk the
+     * database rejects is reported as a whole and the import goes on with the next one.
+     *
+     * @return number of customers written
+     */
+    private int write(List<PendingRow> chunk, Listener listener) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        Integer written;
+        try {
+            written = writeChunk(chunk, listener);
+        } catch (DataAccessException e) {
+            log.warn("Import of rows " + chunk.get(0).row() + " to " + chunk.get(chunk.size() - 1).row() + " failed", e);
+            listener.chunkFailed(new ChunkError(chunk.get(0).row(), chunk.get(chunk.size() - 1).row(),
+                    "chunk not written: " + e.getMostSpecificCause().getClass().getSimpleName()));
+            return 0;
+        }
+        return written == null ? 0 : written;
+    }
+
+    private Integer writeChunk(List<PendingRow> chunk, Listener listener) {
+        return transactionTemplate.execute(status -> {
+            Set<String> lastNames = new HashSet<>(customerRepository.findExistingLastNames(
+                    chunk.stream().map(pending -> pending.customer().getLastName()).toList()));
+            List<Customer> customers = new ArrayList<>(chunk.size());
+            for (PendingRow pending : chunk) {
+                if (lastNames.add(pending.customer().getLastName())) {
+                    customers.add(pending.customer());
+                } else {
+                    listener.rowFailed(new RowError(pending.row(), "customer " + pending.customer().getLastName() + " already exists"));
+                }
+            }
+            customerRepository.saveAll(customers);
+            entityManager.flush();
+            entityManager.clear();
+            return customers.size();
+        });
+    }
+
+    /**
+     * @return the reason the row is rejected, null if it is valid
+     */
+    private static String validate(CustomerImportRow row) {
+        if (row.lastName() == null || row.lastName().isBlank()) {
+            return "lastName is missing";
+        }
+        if (isTooLong(row.lastName())) {
+            return tooLong("lastName");
+        }
+        if (isTooLong(row.firstName())) {
+            return tooLong("firstName");
+        }
+        if (isTooLong(row.email())) {
+            return tooLong("email");
+        }
+        if (isTooLong(row.phoneNumber())) {
+            return tooLong("phoneNumber");
+        }
+        if (row.gender() != null && !isGender(row.gender())) {
+            return "invalid gender: " + row.gender();
+        }
+        if (row.email() != null && !isValidEmail(row.email())) {
+            return "invalid email: " + row.email();
+        }
+        if (row.phoneNumber() != null && !PhoneNumber.isValid(row.phoneNumber())) {
+            return "invalid phone number: " + row.phoneNumber();
+        }
+        return null;
+    }
+
+    private static boolean isTooLong(String value) {
+        return value != null && value.length() > MAX_COLUMN_LENGTH;
+    }
+
+    private static String tooLong(String property) {
+        return property + " is longer than " + MAX_COLUMN_LENGTH + " characters";
+    }
+
+    private static Customer toCustomer(CustomerImportRow row) {
+        return new Customer(row.firstName(), row.lastName(),
+                row.gender() == null ? null : Gender.valueOf(row.gender().toUpperCase(Locale.ROOT)),
+                row.email(),
+                row.phoneNumber() == null ? null : new PhoneNumber(row.phoneNumber()));
+    }
+
+    private static boolean isGender(String gender) {
+        for (Gender value : Gender.values()) {
+            if (value.name().equalsIgnoreCase(gender)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Structural check only: a non-empty local part, a single '@' and a domain with a dot that neither starts nor
+     * ends it, no whitespace.
+     */
+    static boolean isValidEmail(String email) {
+        int at = email.indexOf('@');
+        if (at <= 0 || at != email.lastIndexOf('@')) {
+            return false;
+        }
+        int dot = email.lastIndexOf('.');
+        if (dot <= at + 1 || dot == email.length() - 1) {
+            return false;
+        }
+        for (int i = 0; i < email.length(); i++) {
+            if (Character.isWhitespace(email.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,45 @@
+package com.haw.srs.customerservice.Service;
+
+import com.haw.srs.customerservice.Course;
+import com.haw.srs.customerservice.Customer;
+import com.haw.srs.customerservice.Gender;
+import com.haw.srs.customerservice.PhoneNumber;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Changes to a customer as a JSON Merge Patch (RFC 7386). A property that is missing in the patch is null here and
+ * stays unchanged; a property set to null in the patch is an empty Optional and is cleared. The phone number and the
+ * courses are replaced as a whole, the courses by a list of their ids.
+ */
+@Data
+public class CustomerPatch {
+
+    private Optional<String> firstName;
+
+    private Optional<String> lastName;
+
+    private Optional<Gender> gender;
+
+    private Optional<String> email;
+
+    private Optional<PhoneNumber> phoneNumber;
+
+    private Optional<List<Long>> courseIds;
+
+    /**
+     * A patch replacing every property of the customer with the given one, which is what a PUT does.
+     */
+    public static CustomerPatch replacing(Customer customer) {
+        CustomerPatch patch = new CustomerPatch();
+        patch.setFirstName(Optional.ofNullable(customer.getFirstName()));
+        patch.setLastName(Optional.ofNullable(customer.getLastName()));
+        patch.setGender(Optional.ofNullable(customer.getGender()));
+        patch.setEmail(Optional.ofNullable(customer.getEmail()));
+        patch.setPhoneNumber(Optional.ofNullable(customer.getPhoneNumber()));
+        patch.setCourseIds(Optional.of(customer.getCourses().stream().map(Course::getId).toList()));
+        return patch;
+    }
+}
@@ -1,40 +1,227 @@
 package com.haw.srs.customerservice.Service;
 
+import com.haw.srs.customerservice.Course;
 import com.haw.srs.customerservice.Customer;
+import com.haw.srs.customerservice.Exception.CourseFullException;
+import com.haw.srs.customerservice.Exception.CourseIdMissingException;
+import com.haw.srs.customerservice.Exception.CourseNotFoundException;
 import com.haw.srs.customerservice.Exception.CustomerAlreadyExistingException;
 import com.haw.srs.customerservice.Exception.CustomerNotFoundException;
+import com.haw.srs.customerservice.Exception.PreconditionFailedException;
 import com.haw.srs.customerservice.Gender;
+import com.haw.srs.customerservice.MetricsConfiguration;
+import com.haw.srs.customerservice.Repo.CourseRepository;
 import com.haw.srs.customerservice.Repo.CustomerRepository;
+import com.haw.srs.customerservice.Repo.CustomerSpecifications;
+import com.haw.srs.customerservice.Repo.CustomerView;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 
 @Service
+@Timed(MetricsConfiguration.SERVICE_TIMER)
 public class CustomerService {
 
     private final CustomerRepository customerRepository;
+    private final CourseRepository courseRepository;
+    private final ParticipantCountService participantCountService;
+    private final WaitingListService waitingListService;
 
     @Autowired
-    public CustomerService(CustomerRepository customerRepository) {
+    public CustomerService(CustomerRepository customerRepository, CourseRepository courseRepository,
+                           ParticipantCountService participantCountService, WaitingListService waitingListService) {
         this.customerRepository = customerRepository;
+        this.courseRepository = courseRepository;
+        this.participantCountService = participantCountService;
+        this.waitingListService = waitingListService;
     }
 
+    @Transactional(readOnly = true)
     public List<Customer> findAllCustomers() {
         return customerRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public Customer findCustomerByLastname(String lastName) throws CustomerNotFoundException {
         return customerRepository
                 .findByLastName(lastName)
                 .orElseThrow(() -> new CustomerNotFoundException(lastName));
     }
 
+    @Transactional(readOnly = true)
+    public CustomerView findCustomerView(Long customerId) throws CustomerNotFoundException {
+        return customerRepository
+                .findViewById(customerId)
+                .orElseThrow(() -> new CustomerNotFoundException(customerId));
+    }
+
+    /**
+     * The ETag {@link #findCustomerView} would be answered with, from the versions only, see {@link ETags}.
+     */
+    @Transactional(readOnly = true)
+    public String findCustomerETag(Long customerId) throws CustomerNotFoundException {
+        return customerRepository
+                .findVersionStampById(customerId)
+                .map(ETags::of)
+                .orElseThrow(() -> new CustomerNotFoundException(customerId));
+    }
+
+    /**
+     * Like {@link #findCustomerETag}, but in a read-write transaction, which is never routed to a read replica: for
+     * reads that have to see a write just committed.
+     */
+    @Transactional
+    public String findCustomerETagOnPrimary(Long customerId) throws CustomerNotFoundException {
+        return findCustomerETag(customerId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<CustomerView> findCustomerViews(Long afterId, Pageable pageable) {
+        return customerRepository.findViewPageAfter(afterId, pageable);
+    }
+
+    /**
+     * Keyset page of the customers matching the filter, including their courses. Like
+     * {@link CustomerRepository#findViewPageAfter} the page is limited on the customers first and their courses are
+     * selected for exactly these.
+     */
+    @Transactional(readOnly = true)
+    public List<CustomerView> searchCustomers(CustomerFilter filter, Long afterId, Pageable pageable) {
+        List<Long> ids = customerRepository.findBy(
+                filter.toSpecification().and(CustomerSpecifications.idGreaterThan(afterId)),
+                query -> query.sortBy(Sort.by("id")).limit(pageable.getPageSize()).all()
+                        .stream().map(Customer::getId).toList());
+        return customerRepository.findViewsByIdIn(ids);
+    }
+
     public Customer createCustomer(String firstName, String lastName, Gender gender) throws CustomerAlreadyExistingException {
-        if (customerRepository.findByLastName(lastName).isPresent()) {
+        // index-only probe, the customer itself is not needed for the check
+        if (customerRepository.existsByLastName(lastName)) {
             throw new CustomerAlreadyExistingException(lastName);
         }
 
         return customerRepository.save(new Customer(firstName, lastName, gender));
     }
+
+    /**
+     * Creates the customer as given. Its courses are referenced by id and joined like in a patch, taking a seat each:
+     * if one of them is full or unknown, nothing is created.
+     */
+    @Transactional(rollbackFor = {CourseNotFoundException.class, CourseFullException.class})
+    public Customer createCustomer(Customer customer) throws CourseIdMissingException, CourseNotFoundException, CourseFullException {
+        Set<Long> courseIds = courseIdsOf(customer.getCourses().stream().map(Course::getId).toList());
+        customer.getCourses().clear();
+        Customer created = customerRepository.save(customer);
+        replaceCourses(created, courseIds);
+        return created;
+    }
+
+    /**
+     * Applies the properties contained in the patch. Customer is mapped with dynamic update, so only changed columns
+     * are written. Memberships are only touched if the patch contains the courses, and then as a diff: one delete or
+     * insert per changed membership in customer_courses, plus the participant count of that course. Seats freed by
+     * removed memberships go to the customers waiting longest. A full or unknown course rolls back the whole patch.
+     * <p>
+     * With an {@code ifMatch} (the {@code If-Match} header, may be null) only if the customer's current ETag satisfies
+     * it. A concurrent update committed between the check and this one fails with an
+     * {@link org.springframework.orm.ObjectOptimisticLockingFailureException} on commit.
+     */
+    @Transactional(rollbackFor = {CourseNotFoundException.class, CourseFullException.class})
+    public Customer patchCustomer(Long customerId, CustomerPatch patch, String ifMatch)
+            throws CustomerNotFoundException, CourseIdMissingException, CourseNotFoundException, CourseFullException,
+                   PreconditionFailedException {
+        Customer customer = customerRepository
+                .findWithCoursesById(customerId)
+                .orElseThrow(() -> new CustomerNotFoundException(customerId));
+        if (ifMatch != null) {
+            String eTag = ETags.of(customer);
+            if (!ETags.matches(ifMatch, eTag)) {
+                throw new PreconditionFailedException(eTag);
+            }
+        }
+        // checked before anything is changed, a rejected patch must not be committed in part
+        Set<Long> courseIds = patch.getCourseIds() == null ? null : courseIdsOf(patch.getCourseIds().orElse(List.of()));
+        if (patch.getFirstName() != null) {
+            customer.setFirstName(patch.getFirstName().orElse(null));
+        }
+        if (patch.getLastName() != null) {
+            customer.setLastName(patch.getLastName().orElse(null));
+        }
+        if (patch.getGender() != null) {
+            customer.setGender(patch.getGender().orElse(null));
+        }
+        if (patch.getEmail() != null) {
+            customer.setEmail(patch.getEmail().orElse(null));
+        }
+        if (patch.getPhoneNumber() != null) {
+            customer.setPhoneNumber(patch.getPhoneNumber().orElse(null));
+        }
+        if (courseIds != null) {
+            replaceCourses(customer, courseIds).forEach(waitingListService::promote);
+        }
+        return customer;
+    }
+
+    /**
+     * Deletes the customer. Its memberships are removed first, each with the participant count of its course, and
+     * the freed seats go to the customers waiting longest, like after a cancellation.
+     */
+    @Transactional
+    public void deleteCustomer(Long customerId) throws CustomerNotFoundException {
+        Customer customer = customerRepository
+                .findWithCoursesById(customerId)
+                .orElseThrow(() -> new CustomerNotFoundException(customerId));
+        List<Long> leftCourses = leaveCoursesExcept(customer, Set.of());
+        leftCourses.forEach(courseId -> participantCountService.add(courseId, -1));
+        customerRepository.delete(customer);
+        leftCourses.forEach(waitingListService::promote);
+    }
+
+    private static Set<Long> courseIdsOf(List<Long> courseIds) throws CourseIdMissingException {
+        if (courseIds.stream().anyMatch(Objects::isNull)) {
+            throw new CourseIdMissingException();
+        }
+        return Set.copyOf(courseIds);
+    }
+
+    // the queries and seat allocations run before the memberships change, the decrements after all of them: each may
+    // flush, and every flush with changed memberships increments the customer's version again; a decrement follows
+    // the removal, as a count it materializes includes the memberships of this transaction
+    // returns the ids of the courses left
+    private List<Long> replaceCourses(Customer customer, Set<Long> courseIds) throws CourseNotFoundException, CourseFullException {
+        Set<Long> added = new HashSet<>(courseIds);
+        customer.getCourses().forEach(course -> added.remove(course.getId()));
+        List<Course> courses = added.isEmpty() ? List.of() : courseRepository.findAllById(added);
+        if (courses.size() < added.size()) {
+            courses.forEach(course -> added.remove(course.getId()));
+            throw new CourseNotFoundException(added.iterator().next());
+        }
+        for (Course course : courses) {
+            // unlike an enrollment, a patch does not queue the customer on the waiting list of a full course
+            if (!participantCountService.allocate(course.getId(), 1)) {
+                throw new CourseFullException(course.getId());
+            }
+        }
+        List<Long> left = leaveCoursesExcept(customer, courseIds);
+        courses.forEach(customer::addCourse);
+        left.forEach(courseId -> participantCountService.add(courseId, -1));
+        return left;
+    }
+
+    // ends the memberships in all courses but the kept ones, the caller adjusts their participant counts
+    private List<Long> leaveCoursesExcept(Customer customer, Set<Long> keptCourseIds) {
+        List<Course> left = customer.getCourses().stream()
+                .filter(course -> !keptCourseIds.contains(course.getId()))
+                .toList();
+        left.forEach(customer::removeCourse);
+        return left.stream().map(Course::getId).toList();
+    }
 }
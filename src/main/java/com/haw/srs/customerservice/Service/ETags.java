@@ -0,0 +1,81 @@
+package com.haw.srs.customerservice.Service;
+
+import com.haw.srs.customerservice.Course;
+import com.haw.srs.customerservice.Customer;
+import com.haw.srs.customerservice.Repo.CourseSummary;
+import com.haw.srs.customerservice.Repo.CourseView;
+import com.haw.srs.customerservice.Repo.CustomerRepository;
+import com.haw.srs.customerservice.Repo.CustomerView;
+
+/**
+ * Strong entity tags of customers and courses, derived from their {@code @Version} columns instead of a hash of the
+ * response, so a tag is known without loading or serializing the representation.
+ * <p>
+ * The JSON of a customer contains the names of its courses: its tag is the customer's version (incremented by every
+ * membership change as well) and the sum of the versions of its courses, which grows with every renamed course. The
+ * JSON of a course contains its participant count, which is not versioned with the course and thereby part of its tag.
+ */
+public final class ETags {
+
+    private static final String ANY = "*";
+    private static final String WEAK_PREFIX = "W/";
+
+    private ETags() {
+    }
+
+    public static String of(Customer customer) {
+        return tag(customer.getVersion(), customer.getCourses().stream().mapToLong(Course::getVersion).sum());
+    }
+
+    public static String of(CustomerView customer) {
+        return tag(customer.version(), customer.courses().stream().mapToLong(CourseSummary::version).sum());
+    }
+
+    public static String of(CustomerRepository.VersionStamp stamp) {
+        return tag(stamp.getVersion(), stamp.getCourseVersions());
+    }
+
+    // the participant count has to be filled in, see ParticipantCountService#fill
+    public static String of(Course course) {
+        return tag(course.getVersion(), course.getAnzahlTeilnehmer());
+    }
+
+    public static String of(CourseView course) {
+        return tag(course.version(), course.anzahlTeilnehmer());
+    }
+
+    private static String tag(long version, long dependent) {
+        return "\"" + version + "." + dependent + "\"";
+    }
+
+    /**
+     * Whether an {@code If-Match} header lets a write proceed: {@code *} or one of the listed tags, compared strongly,
+     * so a weak tag never matches.
+     */
+    public static boolean matches(String ifMatch, String eTag) {
+        for (String candidate : ifMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals(ANY) || tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether an {@code If-None-Match} header still matches, i.e. the client's copy is current. Compared weakly, as
+     * RFC 9110 prescribes for conditional GETs.
+     */
+    public static boolean matchesWeakly(String ifNoneMatch, String eTag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith(WEAK_PREFIX)) {
+                tag = tag.substring(WEAK_PREFIX.length());
+            }
+            if (tag.equals(ANY) || tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,12 @@
+package com.haw.srs.customerservice.Service;
+
+/**
+ * Outcome of a single enrollment. {@code replayed} is set if the idempotency key was seen before and the result is
+ * the one of the original submission, nothing was written again.
+ */
+public record EnrollmentResult(Long courseId, String lastName, BulkEnrollmentResult.Status status, boolean replayed) {
+
+    EnrollmentResult replay() {
+        return new EnrollmentResult(courseId, lastName, status, true);
+    }
+}
@@ -0,0 +1,11 @@
+package com.haw.srs.customerservice.Service;
+
+/**
+ * Formats of the customer import and export files.
+ */
+public enum FileFormat {
+    // with a header line naming the columns
+    CSV,
+    // one JSON object per line
+    NDJSON
+}
@@ -0,0 +1,159 @@
+package com.haw.srs.customerservice.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.haw.srs.customerservice.Course;
+import com.haw.srs.customerservice.EnrollmentRequest;
+import com.haw.srs.customerservice.Exception.CourseNotFoundException;
+import com.haw.srs.customerservice.Exception.CustomerNotFoundException;
+import com.haw.srs.customerservice.Exception.IdempotencyKeyReusedException;
+import com.haw.srs.customerservice.Exception.IdempotencyKeyTooLongException;
+import com.haw.srs.customerservice.MetricsConfiguration;
+import com.haw.srs.customerservice.Repo.CourseRepository;
+import com.haw.srs.customerservice.Repo.EnrollmentRequestRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Enrollments that clients may retry. The first submission of an idempotency key enrolls the customer and stores
+ * the result with the key in the same transaction; every later submission of the key gets that result back without
+ * writing anything. Recently completed keys are answered from a bounded in-memory cache, older ones (up to the
+ * retention) from enrollment_request. Concurrent submissions of the same key are serialized by its primary key.
+ */
+@Service
+@Timed(MetricsConfiguration.SERVICE_TIMER)
+public class IdempotentEnrollmentService {
+
+    private final CourseService courseService;
+    private final CourseRepository courseRepository;
+    private final EnrollmentRequestRepository enrollmentRequestRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retention;
+    private final Cache<String, EnrollmentResult> recent;
+    private final Counter replayCounter;
+
+    @Autowired
+    public IdempotentEnrollmentService(CourseService courseService, CourseRepository courseRepository,
+                                       EnrollmentRequestRepository enrollmentRequestRepository,
+                                       TransactionTemplate transactionTemplate, MeterRegistry meterRegistry,
+                                       @Value("${customerservice.idempotency.max-cached-keys:10000}") int maxCachedKeys,
+                                       @Value("${customerservice.idempotency.retention:PT24H}") Duration retention) {
+        this.courseService = courseService;
+        this.courseRepository = courseRepository;
+        this.enrollmentRequestRepository = enrollmentRequestRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.retention = retention;
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(maxCachedKeys)
+                .expireAfterWrite(retention)
+                .build();
+        this.replayCounter = Counter.builder("course.enrollments.replayed")
+                .description("Enrollments answered from an earlier submission with the same idempotency key")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Enrolls the customer like {@link CourseService#enrollInCourse}, at most once per idempotency key.
+     *
+     * @throws IdempotencyKeyReusedException if the key was used for another course or customer
+     * @throws IdempotencyKeyTooLongException if the key is longer than {@link EnrollmentRequest#MAX_KEY_LENGTH}
+     */
+    public EnrollmentResult enroll(String idempotencyKey, Long courseNumber, String lastName)
+            throws CourseNotFoundException, CustomerNotFoundException, IdempotencyKeyReusedException,
+                   IdempotencyKeyTooLongException {
+        if (idempotencyKey.length() > EnrollmentRequest.MAX_KEY_LENGTH) {
+            throw new IdempotencyKeyTooLongException(EnrollmentRequest.MAX_KEY_LENGTH);
+        }
+        EnrollmentResult cached = recent.getIfPresent(idempotencyKey);
+        if (cached != null) {
+            return replay(idempotencyKey, cached, courseNumber, lastName);
+        }
+        Optional<EnrollmentResult> stored = findStored(idempotencyKey);
+        if (stored.isPresent()) {
+            return replay(idempotencyKey, stored.get(), courseNumber, lastName);
+        }
+
+        EnrollmentResult result;
+        try {
+            result = enrollOnce(idempotencyKey, courseNumber, lastName);
+        } catch (DataIntegrityViolationException duplicateKey) {
+            // a concurrent submission of the key committed first; had it rolled back, the claim would have succeeded
+            EnrollmentResult original = findStored(idempotencyKey).orElseThrow(() -> duplicateKey);
+            return replay(idempotencyKey, original, courseNumber, lastName);
+        }
+        recent.put(idempotencyKey, result);
+        return result;
+    }
+
+    private EnrollmentResult enrollOnce(String idempotencyKey, Long courseNumber, String lastName)
+            throws CourseNotFoundException, CustomerNotFoundException {
+        try {
+            return transactionTemplate.execute(status -> {
+                enrollmentRequestRepository.claim(idempotencyKey, courseNumber, lastName, Instant.now());
+                try {
+                    if (!courseRepository.existsById(courseNumber)) {
+                        throw new CourseNotFoundException(courseNumber);
+                    }
+                    Course course = new Course();
+                    course.setId(courseNumber);
+                    BulkEnrollmentResult.Status enrolled = courseService.enrollInCourse(lastName, course);
+                    enrollmentRequestRepository.complete(idempotencyKey, enrolled);
+                    return new EnrollmentResult(courseNumber, lastName, enrolled, false);
+                } catch (CourseNotFoundException | CustomerNotFoundException e) {
+                    // failures are not remembered, the key is released by the rollback and may be retried
+                    throw new RejectedEnrollment(e);
+                }
+            });
+        } catch (RejectedEnrollment rejected) {
+            if (rejected.getCause() instanceof CourseNotFoundException courseNotFound) {
+                throw courseNotFound;
+            }
+            throw (CustomerNotFoundException) rejected.getCause();
+        }
+    }
+
+    // read in a read-write transaction, i.e. from the primary: a key committed just now may not be on a replica yet
+    private Optional<EnrollmentResult> findStored(String idempotencyKey) {
+        return transactionTemplate.execute(status -> enrollmentRequestRepository.findById(idempotencyKey)
+                .filter(request -> request.getStatus() != null)
+                .map(request -> new EnrollmentResult(request.getCourseId(), request.getLastName(), request.getStatus(), false)));
+    }
+
+    private EnrollmentResult replay(String idempotencyKey, EnrollmentResult original, Long courseNumber, String lastName)
+            throws IdempotencyKeyReusedException {
+        if (!Objects.equals(original.courseId(), courseNumber) || !Objects.equals(original.lastName(), lastName)) {
+            throw new IdempotencyKeyReusedException(idempotencyKey);
+        }
+        recent.put(idempotencyKey, original);
+        replayCounter.increment();
+        return original.replay();
+    }
+
+    // keys older than the retention are forgotten, a retry after that is treated as a new enrollment
+    @Scheduled(fixedDelayString = "${customerservice.idempotency.purge-interval:PT1H}",
+            initialDelayString = "${customerservice.idempotency.purge-interval:PT1H}")
+    public void purgeExpiredKeys() {
+        transactionTemplate.executeWithoutResult(status ->
+                enrollmentRequestRepository.deleteCreatedBefore(Instant.now().minus(retention)));
+    }
+
+    // carries the checked exceptions of an enrollment out of the transaction callback, rolling it back
+    private static final class RejectedEnrollment extends RuntimeException {
+
+        RejectedEnrollment(Exception cause) {
+            super(cause);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.haw.srs.customerservice.Service;
+
+import com.haw.srs.customerservice.Course;
+import com.haw.srs.customerservice.MetricsConfiguration;
+import com.haw.srs.customerservice.Repo.CourseParticipantsRepository;
+import com.haw.srs.customerservice.Repo.CourseRepository;
+import io.micrometer.core.annotation.Timed;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Participant counts of courses. The count is defined as the number of memberships in customer_courses and is
+ * materialized in course_participants, which every membership change adjusts within its own transaction. Courses
+ * without a materialized count (e.g. created directly through the repository) are counted from the join table.
+ */
+@Service
+@Timed(MetricsConfiguration.SERVICE_TIMER)
+public class ParticipantCountService {
+
+    private final Log log = LogFactory.getLog(getClass());
+
+    @Autowired
+    private CourseParticipantsRepository courseParticipantsRepository;
+    @Autowired
+    private CourseRepository courseRepository;
+
+    /**
+     * Materializes the count of a new course, to be called in the transaction that creates it.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void create(Long courseId) {
+        courseParticipantsRepository.insertCounted(courseId);
+    }
+
+    /**
+     * Adjusts the count of a course by the memberships added (or removed, if negative) in the current transaction,
+     * after they were changed. A count that would drop below zero does not match the memberships and is recounted.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void add(Long courseId, int delta) {
+        if (courseParticipantsRepository.addParticipants(courseId, delta) == 1) {
+            return;
+        }
+        // not materialized yet: the lock on the course row keeps concurrent first changes from both inserting the
+        // count, the inserted count already includes the (flushed) changes of this transaction
+        courseRepository.findWithLockById(courseId);
+        if (courseParticipantsRepository.insertCounted(courseId) == 1
+                || courseParticipantsRepository.addParticipants(courseId, delta) == 1) {
+            return;
+        }
+        if (courseParticipantsRepository.existsById(courseId)) {
+            // the count would drop below zero, so it no longer matches the memberships
+            log.warn("Participant count of course " + courseId + " is off, recounted from its memberships");
+            courseParticipantsRepository.recount(courseId);
+        }
+    }
+
+    /**
+     * Takes seats of a course for memberships added in the current transaction after this call.
+     *
+     * @return false if the course has fewer seats left
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean allocate(Long courseId, int seats) {
+        if (courseParticipantsRepository.allocateSeats(courseId, seats) == 1) {
+            return true;
+        }
+        if (!courseParticipantsRepository.existsById(courseId)) {
+            // not materialized yet, see add()
+            courseRepository.findWithLockById(courseId);
+            courseParticipantsRepository.insertCounted(courseId);
+        }
+        // full, unless a concurrent first enrollment only materialized the count after the first attempt
+        return courseParticipantsRepository.allocateSeats(courseId, seats) == 1;
+    }
+
+    /**
+     * Adjusts the counts before all memberships of one customer are merged into those of another.
+     *
+     * @return ids of the courses both customers are members of, each of them has lost a participant
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<Long> removeShared(Long fromCustomerId, Long toCustomerId) {
+        List<Long> shared = courseParticipantsRepository.findSharedCourseIds(fromCustomerId, toCustomerId);
+        if (!shared.isEmpty()) {
+            courseParticipantsRepository.decrementParticipants(shared);
+        }
+        return shared;
+    }
+
+    @Transactional(readOnly = true)
+    public int of(Long courseId) {
+        return of(List.of(courseId)).getOrDefault(courseId, 0);
+    }
+
+    /**
+     * Counts of many courses in one query on the summary table, plus one GROUP BY over the memberships for the
+     * courses that are not materialized. Courses without participants may be missing in the result.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Integer> of(Collection<Long> courseIds) {
+        Map<Long, Integer> counts = new HashMap<>();
+        if (courseIds.isEmpty()) {
+            return counts;
+        }
+        courseParticipantsRepository.findAllById(courseIds)
+                .forEach(count -> counts.put(count.getCourseId(), count.getParticipants()));
+        List<Long> missing = courseIds.stream().filter(id -> !counts.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            courseParticipantsRepository.countMemberships(missing)
+                    .forEach(count -> counts.put(count.getCourseId(), (int) count.getParticipants()));
+        }
+        return counts;
+    }
+
+    @Transactional(readOnly = true)
+    public Course fill(Course course) {
+        course.setAnzahlTeilnehmer(of(course.getId()));
+        return course;
+    }
+}
@@ -0,0 +1,77 @@
+package com.haw.srs.customerservice.Service;
+
+import com.haw.srs.customerservice.MailGateway;
+import com.haw.srs.customerservice.MetricsConfiguration;
+import com.haw.srs.customerservice.Repo.CustomerRepository;
+import com.haw.srs.customerservice.Repo.WaitingListRepository;
+import com.haw.srs.customerservice.WaitingListEntry;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Waiting lists of full courses. Seats freed by a cancellation (or a raised capacity) go to the customers waiting
+ * longest: every promotion takes a seat with the same conditional update as an enrollment and then claims the first
+ * entry of the list, so concurrent promotions never promote a customer twice or more customers than there are seats.
+ */
+@Service
+@Timed(MetricsConfiguration.SERVICE_TIMER)
+public class WaitingListService {
+
+    @Autowired
+    private WaitingListRepository waitingListRepository;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private ParticipantCountService participantCountService;
+    @Autowired
+    private MailGateway mailGateway;
+
+    /**
+     * Puts the customer at the end of the waiting list of the course, unless it is waiting already.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(Long courseId, Long customerId) {
+        if (!waitingListRepository.existsByCourseIdAndCustomerId(courseId, customerId)) {
+            waitingListRepository.save(new WaitingListEntry(courseId, customerId));
+        }
+    }
+
+    /**
+     * Enrolls waiting customers, first come first served, as long as the course has free seats.
+     *
+     * @return number of customers promoted
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int promote(Long courseId) {
+        int promoted = 0;
+        Optional<WaitingListEntry> next = waitingListRepository.findFirstByCourseIdAndIdGreaterThanOrderByIdAsc(courseId, 0L);
+        while (next.isPresent() && participantCountService.allocate(courseId, 1)) {
+            WaitingListEntry entry = next.get();
+            if (waitingListRepository.claim(entry.getId()) == 1
+                    && customerRepository.insertMembership(entry.getCustomerId(), courseId) == 1) {
+                customerRepository.incrementVersions(List.of(entry.getCustomerId()));
+                customerRepository.findById(entry.getCustomerId())
+                        .filter(customer -> customer.getEmail() != null)
+                        .ifPresent(customer -> mailGateway.enqueueMail(customer.getEmail(),
+                                "A seat became free, you are now enrolled!", "Some text to welcome her/him to the course..."));
+                promoted++;
+            } else {
+                // promoted by a concurrent cancellation or enrolled meanwhile, give the seat back
+                participantCountService.add(courseId, -1);
+            }
+            next = waitingListRepository.findFirstByCourseIdAndIdGreaterThanOrderByIdAsc(courseId, entry.getId());
+        }
+        return promoted;
+    }
+
+    @Transactional(readOnly = true)
+    public List<Long> waitingCustomers(Long courseId) {
+        return waitingListRepository.findCustomerIdsByCourseId(courseId);
+    }
+}
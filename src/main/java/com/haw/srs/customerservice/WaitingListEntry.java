@@ -0,0 +1,35 @@
+package com.haw.srs.customerservice;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+// a customer waiting for a seat in a full course; the waiting list of a course is ordered by id
+@Entity
+@Table(name = "waiting_list_entry",
+        uniqueConstraints = @UniqueConstraint(name = "uk_waiting_list_course_customer", columnNames = {"course_id", "customer_id"}),
+        indexes = @Index(name = "idx_waiting_list_course", columnList = "course_id, id"))
+@Data
+@NoArgsConstructor
+public class WaitingListEntry {
+
+    @Id
+    @GeneratedValue(generator = "waiting_list_entry_seq")
+    @GenericGenerator(name = "waiting_list_entry_seq", type = PooledSequenceGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "waiting_list_entry_seq"))
+    private Long id;
+
+    @Column(name = "course_id", nullable = false)
+    private Long courseId;
+
+    @Column(name = "customer_id", nullable = false)
+    private Long customerId;
+
+    public WaitingListEntry(Long courseId, Long customerId) {
+        this.courseId = courseId;
+        this.customerId = customerId;
+    }
+}
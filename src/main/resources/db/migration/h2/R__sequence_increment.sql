@@ -0,0 +1,5 @@
+-- the increment has to match customerservice.ids.allocation-size (pooled optimizer), re-applied whenever it changes
+alter sequence customer_seq increment by ${id-allocation-size};
+alter sequence course_seq increment by ${id-allocation-size};
+alter sequence mail_outbox_message_seq increment by ${id-allocation-size};
+alter sequence waiting_list_entry_seq increment by ${id-allocation-size};
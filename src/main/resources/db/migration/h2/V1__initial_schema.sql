@@ -0,0 +1,56 @@
+-- ids are drawn from sequences in blocks of 50 (hibernate's pooled optimizer)
+create sequence customer_seq start with 1 increment by 50;
+create sequence course_seq start with 1 increment by 50;
+create sequence mail_outbox_message_seq start with 1 increment by 50;
+
+create table customer (
+    id bigint not null,
+    first_name varchar(255),
+    last_name varchar(255),
+    gender varchar(16),
+    email varchar(255),
+    country_code varchar(255),
+    area_code varchar(255),
+    subscriber_number varchar(255),
+    primary key (id)
+);
+create index idx_customer_last_name on customer (last_name);
+create index idx_customer_first_name on customer (first_name);
+create index idx_customer_email on customer (email);
+
+create table course (
+    id bigint not null,
+    name varchar(255),
+    primary key (id)
+);
+create index idx_course_name on course (name);
+
+-- the primary key serves the courses of a customer, idx_customer_courses_course the members of a course
+create table customer_courses (
+    customer_id bigint not null,
+    course_id bigint not null,
+    primary key (customer_id, course_id),
+    constraint fk_customer_courses_customer foreign key (customer_id) references customer (id),
+    constraint fk_customer_courses_course foreign key (course_id) references course (id)
+);
+create index idx_customer_courses_course on customer_courses (course_id, customer_id);
+
+create table course_participants (
+    course_id bigint not null,
+    participants integer not null,
+    primary key (course_id),
+    constraint fk_course_participants_course foreign key (course_id) references course (id) on delete cascade
+);
+
+create table mail_outbox_message (
+    id bigint not null,
+    recipient varchar(255),
+    subject varchar(255),
+    text varchar(4000),
+    status varchar(16),
+    attempts integer not null,
+    next_attempt_at timestamp(6) with time zone,
+    last_error varchar(1000),
+    primary key (id)
+);
+create index idx_mail_outbox_due on mail_outbox_message (status, next_attempt_at);
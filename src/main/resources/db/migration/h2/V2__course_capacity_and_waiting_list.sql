@@ -0,0 +1,15 @@
+alter table course add column capacity integer;
+
+create sequence waiting_list_entry_seq start with 1 increment by 50;
+
+-- entries go away with their course or customer
+create table waiting_list_entry (
+    id bigint not null,
+    course_id bigint not null,
+    customer_id bigint not null,
+    primary key (id),
+    constraint uk_waiting_list_course_customer unique (course_id, customer_id),
+    constraint fk_waiting_list_course foreign key (course_id) references course (id) on delete cascade,
+    constraint fk_waiting_list_customer foreign key (customer_id) references customer (id) on delete cascade
+);
+create index idx_waiting_list_course on waiting_list_entry (course_id, id);
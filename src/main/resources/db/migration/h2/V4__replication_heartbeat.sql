@@ -0,0 +1,7 @@
+-- written on the primary and read on the replica to measure the replication lag, see ReplicaLagMonitor
+create table replication_heartbeat (
+    id integer not null,
+    beat_at timestamp(6) with time zone not null,
+    primary key (id)
+);
+insert into replication_heartbeat (id, beat_at) values (1, timestamp with time zone '1970-01-01 00:00:00+00');
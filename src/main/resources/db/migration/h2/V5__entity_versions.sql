@@ -0,0 +1,3 @@
+-- optimistic locking versions of customer and course, also the base of their ETags; rows written without it start at 0
+alter table customer add column version bigint default 0 not null;
+alter table course add column version bigint default 0 not null;
@@ -0,0 +1,87 @@
+-- also brings a schema created earlier by ddl-auto=update up to date (flyway baselines it at version 0): tables are
+-- only created if missing, the indexes added where missing, see add_index below
+
+-- mysql has no sequences, hibernate emulates them with one single-row table per entity
+create table if not exists customer_seq (next_val bigint) engine=InnoDB;
+insert into customer_seq select 1 from dual where not exists (select * from customer_seq);
+create table if not exists course_seq (next_val bigint) engine=InnoDB;
+insert into course_seq select 1 from dual where not exists (select * from course_seq);
+create table if not exists mail_outbox_message_seq (next_val bigint) engine=InnoDB;
+insert into mail_outbox_message_seq select 1 from dual where not exists (select * from mail_outbox_message_seq);
+
+create table if not exists customer (
+    id bigint not null,
+    first_name varchar(255),
+    last_name varchar(255),
+    gender varchar(16),
+    email varchar(255),
+    country_code varchar(255),
+    area_code varchar(255),
+    subscriber_number varchar(255),
+    primary key (id)
+) engine=InnoDB default charset=utf8mb4;
+-- ddl-auto=update made it a native enum column
+alter table customer modify gender varchar(16);
+
+create table if not exists course (
+    id bigint not null,
+    name varchar(255),
+    primary key (id)
+) engine=InnoDB default charset=utf8mb4;
+
+-- mysql has no "create index if not exists"
+create procedure add_index(in table_name varchar(64), in index_name varchar(64), in index_columns varchar(255))
+begin
+    if not exists (select * from information_schema.statistics s
+                   where s.table_schema = database() and s.table_name = table_name and s.index_name = index_name) then
+        set @ddl = concat('create index ', index_name, ' on ', table_name, ' (', index_columns, ')');
+        prepare ddl from @ddl;
+        execute ddl;
+        deallocate prepare ddl;
+    end if;
+end;
+
+call add_index('customer', 'idx_customer_last_name', 'last_name');
+call add_index('customer', 'idx_customer_first_name', 'first_name');
+call add_index('customer', 'idx_customer_email', 'email');
+call add_index('course', 'idx_course_name', 'name');
+
+drop procedure add_index;
+
+-- the primary key serves the courses of a customer, idx_customer_courses_course the members of a course; the table is
+-- rebuilt as ddl-auto=update kept the memberships without primary key, possibly twice
+create table if not exists customer_courses (
+    customer_id bigint not null,
+    course_id bigint not null
+) engine=InnoDB;
+create table customer_courses_keyed (
+    customer_id bigint not null,
+    course_id bigint not null,
+    primary key (customer_id, course_id),
+    index idx_customer_courses_course (course_id, customer_id),
+    constraint fk_customer_courses_customer foreign key (customer_id) references customer (id),
+    constraint fk_customer_courses_course foreign key (course_id) references course (id)
+) engine=InnoDB;
+insert into customer_courses_keyed (customer_id, course_id) select distinct customer_id, course_id from customer_courses;
+drop table customer_courses;
+rename table customer_courses_keyed to customer_courses;
+
+create table course_participants (
+    course_id bigint not null,
+    participants integer not null,
+    primary key (course_id),
+    constraint fk_course_participants_course foreign key (course_id) references course (id) on delete cascade
+) engine=InnoDB;
+
+create table mail_outbox_message (
+    id bigint not null,
+    recipient varchar(255),
+    subject varchar(255),
+    text varchar(4000),
+    status varchar(16),
+    attempts integer not null,
+    next_attempt_at datetime(6),
+    last_error varchar(1000),
+    primary key (id),
+    index idx_mail_outbox_due (status, next_attempt_at)
+) engine=InnoDB default charset=utf8mb4;
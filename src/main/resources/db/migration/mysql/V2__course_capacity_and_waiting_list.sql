@@ -0,0 +1,16 @@
+alter table course add column capacity integer;
+
+create table waiting_list_entry_seq (next_val bigint) engine=InnoDB;
+insert into waiting_list_entry_seq values (1);
+
+-- entries go away with their course or customer
+create table waiting_list_entry (
+    id bigint not null,
+    course_id bigint not null,
+    customer_id bigint not null,
+    primary key (id),
+    unique key uk_waiting_list_course_customer (course_id, customer_id),
+    index idx_waiting_list_course (course_id, id),
+    constraint fk_waiting_list_course foreign key (course_id) references course (id) on delete cascade,
+    constraint fk_waiting_list_customer foreign key (customer_id) references customer (id) on delete cascade
+) engine=InnoDB;
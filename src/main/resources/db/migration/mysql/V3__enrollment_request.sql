@@ -0,0 +1,10 @@
+-- idempotency keys of enrollments, purged after the retention configured in customerservice.idempotency
+create table enrollment_request (
+    idempotency_key varchar(255) not null,
+    course_id bigint not null,
+    last_name varchar(255) not null,
+    status varchar(16),
+    created_at datetime(6) not null,
+    primary key (idempotency_key),
+    index idx_enrollment_request_created (created_at)
+) engine=InnoDB default charset=utf8mb4;
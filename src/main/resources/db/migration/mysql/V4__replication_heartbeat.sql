@@ -0,0 +1,7 @@
+-- written on the primary and read on the replica to measure the replication lag, see ReplicaLagMonitor
+create table replication_heartbeat (
+    id integer not null,
+    beat_at datetime(6) not null,
+    primary key (id)
+) engine=InnoDB;
+insert into replication_heartbeat (id, beat_at) values (1, '1970-01-01 00:00:01');
@@ -0,0 +1,2 @@
+-- the dispatcher instance currently sending a message, see MailOutboxDispatcher
+alter table mail_outbox_message add column claimed_by varchar(36);
@@ -0,0 +1,97 @@
+package com.haw.srs.customerservice;
+
+import com.haw.srs.customerservice.Repo.CourseParticipantsRepository;
+import com.haw.srs.customerservice.Repo.CustomerRepository;
+import com.haw.srs.customerservice.Service.CourseService;
+import com.haw.srs.customerservice.Service.ParticipantCountService;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fixture of the tests enrolling many customers at once: seeds the customers, runs the tasks on a shared thread pool
+ * and checks a course's materialized participant count against its memberships.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = Application.class, webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "customerservice.mail.outbox.poll-interval=PT1H")
+abstract class ConcurrentEnrollmentTestSupport {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    protected CourseService courseService;
+
+    @Autowired
+    protected CustomerRepository customerRepository;
+
+    @Autowired
+    protected CourseParticipantsRepository courseParticipantsRepository;
+
+    @Autowired
+    protected ParticipantCountService participantCountService;
+
+    /**
+     * Replaces all customers by {@code count} new ones.
+     */
+    protected void seedCustomers(int count, IntFunction<Customer> customer) {
+        customerRepository.deleteAll();
+        customerRepository.saveAll(IntStream.range(0, count).mapToObj(customer).toList());
+    }
+
+    protected Callable<Void> enrollment(Long courseId, String lastName) {
+        return () -> {
+            Course course = new Course();
+            course.setId(courseId);
+            courseService.enrollInCourse(lastName, course);
+            return null;
+        };
+    }
+
+    /**
+     * Runs the tasks on {@value #THREADS} threads, all released at once, and returns their results in order. The
+     * first failed task fails the test.
+     */
+    protected <T> List<T> runConcurrently(List<Callable<T>> tasks) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<T>> futures = tasks.stream()
+                    .map(task -> executor.submit(() -> {
+                        start.await();
+                        return task.call();
+                    }))
+                    .toList();
+            start.countDown();
+            List<T> results = new ArrayList<>(futures.size());
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    protected void assertParticipants(Long courseId, int expected) {
+        assertThat(participantCountService.of(courseId)).isEqualTo(expected);
+        // the materialized count matches the memberships actually written
+        assertThat(courseParticipantsRepository.countMemberships(List.of(courseId)))
+                .singleElement()
+                .extracting(CourseParticipantsRepository.MembershipCount::getParticipants)
+                .isEqualTo((long) expected);
+    }
+}
@@ -0,0 +1,143 @@
+package com.haw.srs.customerservice;
+
+import com.haw.srs.customerservice.Repo.CourseRepository;
+import com.haw.srs.customerservice.Repo.CustomerRepository;
+import com.haw.srs.customerservice.Service.CourseService;
+import com.haw.srs.customerservice.Service.CustomerPatch;
+import com.haw.srs.customerservice.Service.CustomerService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Clients polling GET /customers/{id} for {@value #CUSTOMERS} customers with {@value #COURSES} courses each, while
+ * one poll in {@value #CHANGE_EVERY} is preceded by a change of the polled customer. The same workload runs once
+ * unconditionally and once with {@code If-None-Match}, and the response bytes and the process CPU time are compared.
+ * Client and server share the process, so the CPU time includes the client's (identical) share. Run with
+ * {@code ./gradlew loadTest}.
+ */
+@Tag("load")
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = Application.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "customerservice.mail.outbox.poll-interval=PT1H")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ConditionalGetLoadTest {
+
+    private static final int CUSTOMERS = 1000;
+    private static final int COURSES = 10;
+    private static final int WARMUP = 5000;
+    private static final int POLLS = 50_000;
+    private static final int CHANGE_EVERY = 50;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CourseService courseService;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+    private List<Long> customerIds;
+
+    @BeforeAll
+    void seed() throws Exception {
+        customerRepository.deleteAll();
+        courseRepository.deleteAll();
+        List<Customer> customers = new ArrayList<>(CUSTOMERS);
+        for (int i = 0; i < CUSTOMERS; i++) {
+            customers.add(new Customer("Jane", "Poll" + i, Gender.FEMALE, "poll" + i + "@dummy.org", null));
+        }
+        customerIds = customerRepository.saveAll(customers).stream().map(Customer::getId).toList();
+        for (int i = 0; i < COURSES; i++) {
+            Long courseId = courseService.createCourse(new Course("Polled Course " + i)).getId();
+            courseService.enrollAllInCourse(courseId, customerIds, List.of());
+        }
+    }
+
+    @Test
+    void conditionalPollingSavesBytesAndCpu() throws Exception {
+        poll(false, WARMUP);
+        poll(true, WARMUP);
+
+        Result unconditional = poll(false, POLLS);
+        Result conditional = poll(true, POLLS);
+
+        System.out.printf("%n%d polls, %d%% changed: unconditional %d bytes %.0fms CPU, conditional %d bytes %.0fms CPU "
+                        + "(%d not modified)%n", POLLS, 100 / CHANGE_EVERY,
+                unconditional.bytes(), unconditional.cpuNanos() / 1e6,
+                conditional.bytes(), conditional.cpuNanos() / 1e6, conditional.notModified());
+
+        // every poll after a change has to see it, all others are answered with 304 once the client has a tag
+        assertThat(conditional.notModified()).isGreaterThan(POLLS / 2);
+        assertThat(conditional.bytes()).isLessThan(unconditional.bytes() / 5);
+        assertThat(conditional.cpuNanos()).isLessThan(unconditional.cpuNanos());
+    }
+
+    private Result poll(boolean conditional, int polls) throws Exception {
+        // the same sequence of customers and changes in both runs
+        Random random = new Random(42);
+        Map<Long, String> eTags = new HashMap<>();
+        long bytes = 0;
+        int notModified = 0;
+        long cpuBefore = processCpuTime();
+        for (int i = 0; i < polls; i++) {
+            Long customerId = customerIds.get(random.nextInt(CUSTOMERS));
+            if (i % CHANGE_EVERY == 0) {
+                CustomerPatch patch = new CustomerPatch();
+                patch.setEmail(Optional.of("poll" + i + "@dummy.org"));
+                customerService.patchCustomer(customerId, patch, null);
+            }
+
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/customers/" + customerId));
+            String eTag = eTags.get(customerId);
+            if (conditional && eTag != null) {
+                request.header("If-None-Match", eTag);
+            }
+            HttpResponse<byte[]> response = http.send(request.GET().build(), HttpResponse.BodyHandlers.ofByteArray());
+            bytes += response.body().length;
+            if (response.statusCode() == HttpStatus.NOT_MODIFIED.value()) {
+                notModified++;
+            } else {
+                assertThat(response.statusCode()).isEqualTo(HttpStatus.OK.value());
+                eTags.put(customerId, response.headers().firstValue("ETag").orElseThrow());
+            }
+        }
+        return new Result(bytes, processCpuTime() - cpuBefore, notModified);
+    }
+
+    private static long processCpuTime() {
+        return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getProcessCpuTime();
+    }
+
+    private record Result(long bytes, long cpuNanos, int notModified) {
+    }
+}
@@ -0,0 +1,108 @@
+package com.haw.srs.customerservice;
+
+import com.haw.srs.customerservice.Repo.CourseRepository;
+import com.haw.srs.customerservice.Repo.CustomerRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import static io.restassured.RestAssured.given;
+import static io.restassured.RestAssured.when;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = Application.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "customerservice.mail.outbox.poll-interval=PT1H")
+class CourseCacheTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+
+    private Course course;
+
+    @BeforeEach
+    void setUp() {
+        customerRepository.deleteAll();
+        courseRepository.deleteAll();
+        course = courseRepository.save(new Course("Informatik"));
+
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        RestAssured.port = port;
+        RestAssured.basePath = "";
+    }
+
+    @Test
+    void repeatedReadsAreServedFromCache() {
+        when().get("/courses/{id}", course.getId()).then().statusCode(HttpStatus.OK.value());
+        when().get("/courses/{id}", course.getId()).then().statusCode(HttpStatus.OK.value());
+        when().get("/courses/{id}", course.getId()).then().statusCode(HttpStatus.OK.value());
+
+        // the course row is selected once, only its participant count is read per request
+        assertThat(statistics.getEntityStatistics(Course.class.getName()).getLoadCount()).isEqualTo(1);
+        assertThat(statistics.getDomainDataRegionStatistics(Course.CACHE_REGION).getHitCount()).isEqualTo(2);
+        assertThat(meterRegistry.find("hibernate.second.level.cache.requests").tag("result", "hit").functionCounters())
+                .isNotEmpty();
+    }
+
+    @Test
+    void updateCourseRefreshesCache() {
+        when().get("/courses/{id}", course.getId()).then().body("name", equalTo("Informatik"));
+
+        given()
+                .contentType(ContentType.JSON)
+                .body("{ \"name\": \"Technische Informatik\" }")
+                .when()
+                .put("/courses/{id}", course.getId())
+                .then()
+                .statusCode(HttpStatus.OK.value());
+
+        when().get("/courses/{id}", course.getId()).then().body("name", equalTo("Technische Informatik"));
+    }
+
+    @Test
+    void deleteCourseEvictsCache() {
+        when().get("/courses/{id}", course.getId()).then().statusCode(HttpStatus.OK.value());
+
+        when().delete("/courses/{id}", course.getId()).then().statusCode(HttpStatus.NO_CONTENT.value());
+
+        when().get("/courses/{id}", course.getId()).then().statusCode(HttpStatus.NOT_FOUND.value());
+    }
+
+    @Test
+    void nameLookupIsServedFromQueryCache() {
+        courseRepository.findCourseByName("Informatik");
+        courseRepository.findCourseByName("Informatik");
+
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+        assertThat(statistics.getQueryCacheMissCount()).isEqualTo(1);
+    }
+}
@@ -1,6 +1,7 @@
 package com.haw.srs.customerservice;
 
 import com.haw.srs.customerservice.Repo.CourseRepository;
+import com.haw.srs.customerservice.Repo.CustomerRepository;
 import io.restassured.RestAssured;
 import io.restassured.http.ContentType;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,7 +13,10 @@ import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.http.HttpStatus;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.util.UUID;
+
 import static io.restassured.RestAssured.*;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
 
 @ExtendWith(SpringExtension.class)
@@ -26,8 +30,13 @@ class CourseFacadeTest {
     @Autowired
     private CourseRepository courseRepository;
 
+    @Autowired
+    private CustomerRepository customerRepository;
+
     @BeforeEach
     void setUp() {
+        // memberships reference courses, so customers go first
+        customerRepository.deleteAll();
         courseRepository.deleteAll();
 
         RestAssured.port = port;
@@ -56,6 +65,49 @@ class CourseFacadeTest {
                 .body("name", hasItems("Mathe", "Physik"));
     }
 
+    @Test
+    void getAllCoursesPagedByCursor() {
+        Course mathe = courseRepository.save(new Course("Mathe"));
+        courseRepository.save(new Course("Physik"));
+
+        given()
+                .queryParam("size", 1)
+                .when()
+                .get("/courses")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .header("Link", containsString("after=" + mathe.getId()))
+                .body("", hasSize(1))
+                .body("name", hasItems("Mathe"));
+
+        given()
+                .queryParam("after", mathe.getId())
+                .when()
+                .get("/courses")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .header("Link", nullValue())
+                .body("", hasSize(1))
+                .body("name", hasItems("Physik"));
+    }
+
+    @Test
+    void streamCoursesAsNdjson() {
+        courseRepository.save(new Course("Mathe"));
+        courseRepository.save(new Course("Physik"));
+
+        String body = when()
+                .get("/courses/stream")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .contentType(containsString("application/x-ndjson"))
+                .extract()
+                .asString();
+
+        assertThat(body.split("\n")).hasSize(2);
+        assertThat(body).contains("\"name\":\"Mathe\"", "\"name\":\"Physik\"");
+    }
+
     @Test
     void getCourseByIdSuccess() {
         Course saved = courseRepository.save(new Course("Informatik"));
@@ -113,6 +165,174 @@ class CourseFacadeTest {
                 .statusCode(HttpStatus.BAD_REQUEST.value());
     }
 
+    @Test
+    void enrollCustomersInBulkSuccess() {
+        Course saved = courseRepository.save(new Course("Datenbanken"));
+        Customer customer = customerRepository.save(new Customer("Jane", "Doe", Gender.FEMALE));
+        String json = "{ \"customerIds\": [" + customer.getId() + "], \"lastNames\": [\"notExisting\"] }";
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(json)
+                .when()
+                .post("/courses/{id}/enrollments", saved.getId())
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("enrolled", equalTo(1))
+                .body("items.status", contains("ENROLLED", "NOT_FOUND"));
+
+        when()
+                .get("/courses/{id}", saved.getId())
+                .then()
+                .body("anzahlTeilnehmer", equalTo(1));
+    }
+
+    @Test
+    void enrollCustomersInBulkFailBecauseOfCourseNotFound() {
+        given()
+                .contentType(ContentType.JSON)
+                .body("{ \"lastNames\": [\"Doe\"] }")
+                .when()
+                .post("/courses/{id}/enrollments", 7777L)
+                .then()
+                .statusCode(HttpStatus.NOT_FOUND.value());
+    }
+
+    @Test
+    void enrollCustomerRetriedWithSameKeyEnrollsOnce() {
+        Course saved = courseRepository.save(new Course("Datenbanken"));
+        customerRepository.save(new Customer("Jane", "Doe", Gender.FEMALE));
+        String key = UUID.randomUUID().toString();
+
+        given()
+                .header("Idempotency-Key", key)
+                .when()
+                .post("/courses/{id}/enrollments/{lastName}", saved.getId(), "Doe")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("status", equalTo("ENROLLED"))
+                .body("replayed", equalTo(false));
+
+        // the retry gets the original result, not ALREADY_ENROLLED
+        given()
+                .header("Idempotency-Key", key)
+                .when()
+                .post("/courses/{id}/enrollments/{lastName}", saved.getId(), "Doe")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("status", equalTo("ENROLLED"))
+                .body("replayed", equalTo(true));
+
+        when()
+                .get("/courses/{id}", saved.getId())
+                .then()
+                .body("anzahlTeilnehmer", equalTo(1));
+    }
+
+    @Test
+    void enrollCustomerFailsIfLastNameIsAmbiguous() {
+        Course saved = courseRepository.save(new Course("Datenbanken"));
+        customerRepository.save(new Customer("Jane", "Doe", Gender.FEMALE));
+        customerRepository.save(new Customer("John", "Doe", Gender.MALE));
+
+        given()
+                .header("Idempotency-Key", UUID.randomUUID().toString())
+                .when()
+                .post("/courses/{id}/enrollments/{lastName}", saved.getId(), "Doe")
+                .then()
+                .statusCode(HttpStatus.CONFLICT.value());
+    }
+
+    @Test
+    void enrollCustomerFailsIfKeyIsReusedForAnotherCustomer() {
+        Course saved = courseRepository.save(new Course("Datenbanken"));
+        customerRepository.save(new Customer("Jane", "Doe", Gender.FEMALE));
+        customerRepository.save(new Customer("John", "Smith", Gender.MALE));
+        String key = UUID.randomUUID().toString();
+
+        given()
+                .header("Idempotency-Key", key)
+                .when()
+                .post("/courses/{id}/enrollments/{lastName}", saved.getId(), "Doe")
+                .then()
+                .statusCode(HttpStatus.OK.value());
+
+        given()
+                .header("Idempotency-Key", key)
+                .when()
+                .post("/courses/{id}/enrollments/{lastName}", saved.getId(), "Smith")
+                .then()
+                .statusCode(HttpStatus.UNPROCESSABLE_ENTITY.value());
+    }
+
+    @Test
+    void enrollCustomerFailureCanBeRetriedWithSameKey() {
+        Course saved = courseRepository.save(new Course("Datenbanken"));
+        String key = UUID.randomUUID().toString();
+
+        given()
+                .header("Idempotency-Key", key)
+                .when()
+                .post("/courses/{id}/enrollments/{lastName}", saved.getId(), "Doe")
+                .then()
+                .statusCode(HttpStatus.NOT_FOUND.value());
+
+        customerRepository.save(new Customer("Jane", "Doe", Gender.FEMALE));
+
+        given()
+                .header("Idempotency-Key", key)
+                .when()
+                .post("/courses/{id}/enrollments/{lastName}", saved.getId(), "Doe")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("status", equalTo("ENROLLED"));
+    }
+
+    @Test
+    void enrollCustomerRequiresKey() {
+        when()
+                .post("/courses/{id}/enrollments/{lastName}", 1L, "Doe")
+                .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value());
+    }
+
+    @Test
+    void enrollCustomerFailsWithTooLongKey() {
+        Course saved = courseRepository.save(new Course("Datenbanken"));
+        customerRepository.save(new Customer("Jane", "Doe", Gender.FEMALE));
+
+        given()
+                .header("Idempotency-Key", "k".repeat(EnrollmentRequest.MAX_KEY_LENGTH + 1))
+                .when()
+                .post("/courses/{id}/enrollments/{lastName}", saved.getId(), "Doe")
+                .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value());
+
+        when()
+                .get("/courses/{id}", saved.getId())
+                .then()
+                .body("anzahlTeilnehmer", equalTo(0));
+    }
+
+    @Test
+    void getWaitingListOfCourse() {
+        Course saved = courseRepository.save(new Course("Datenbanken"));
+
+        when()
+                .get("/courses/{id}/waiting-list", saved.getId())
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("", hasSize(0));
+    }
+
+    @Test
+    void getWaitingListFailsForUnknownCourse() {
+        when()
+                .get("/courses/{id}/waiting-list", 7777L)
+                .then()
+                .statusCode(HttpStatus.NOT_FOUND.value());
+    }
+
     @Test
     void updateCourseSuccess() {
         Course saved = courseRepository.save(new Course("Geschichte"));
@@ -142,6 +362,70 @@ class CourseFacadeTest {
                 .statusCode(HttpStatus.NOT_FOUND.value());
     }
 
+    @Test
+    void getCourseIsNotModifiedUntilParticipantsChange() {
+        Course saved = courseRepository.save(new Course("Datenbanken"));
+        Customer customer = customerRepository.save(new Customer("Jane", "Doe", Gender.FEMALE));
+        String eTag = when().get("/courses/{id}", saved.getId()).then().statusCode(HttpStatus.OK.value())
+                .extract().header("ETag");
+
+        given()
+                .header("If-None-Match", eTag)
+                .when()
+                .get("/courses/{id}", saved.getId())
+                .then()
+                .statusCode(HttpStatus.NOT_MODIFIED.value())
+                .header("ETag", equalTo(eTag))
+                .body(emptyString());
+
+        given()
+                .contentType(ContentType.JSON)
+                .body("{ \"customerIds\": [" + customer.getId() + "] }")
+                .post("/courses/{id}/enrollments", saved.getId());
+
+        given()
+                .header("If-None-Match", eTag)
+                .when()
+                .get("/courses/{id}", saved.getId())
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .header("ETag", not(equalTo(eTag)))
+                .body("anzahlTeilnehmer", equalTo(1));
+    }
+
+    @Test
+    void updateCourseWithStaleETagFailsWithPreconditionFailed() {
+        Course saved = courseRepository.save(new Course("Geschichte"));
+        String eTag = when().get("/courses/{id}", saved.getId()).then().extract().header("ETag");
+
+        String newETag = given()
+                .contentType(ContentType.JSON)
+                .header("If-Match", eTag)
+                .body("{ \"name\": \"Neuere Geschichte\" }")
+                .when()
+                .put("/courses/{id}", saved.getId())
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract().header("ETag");
+        assertThat(newETag).isNotEqualTo(eTag);
+
+        // a second client still holding the first tag must not overwrite the rename
+        given()
+                .contentType(ContentType.JSON)
+                .header("If-Match", eTag)
+                .body("{ \"name\": \"Alte Geschichte\" }")
+                .when()
+                .put("/courses/{id}", saved.getId())
+                .then()
+                .statusCode(HttpStatus.PRECONDITION_FAILED.value());
+
+        when()
+                .get("/courses/{id}", saved.getId())
+                .then()
+                .header("ETag", equalTo(newETag))
+                .body("name", equalTo("Neuere Geschichte"));
+    }
+
     @Test
     void deleteCourseSuccess() {
         Course saved = courseRepository.save(new Course("Philosophie"));
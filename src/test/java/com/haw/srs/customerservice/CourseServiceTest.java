@@ -1,12 +1,19 @@
 package com.haw.srs.customerservice;
 
+import com.haw.srs.customerservice.Exception.CourseFullException;
+import com.haw.srs.customerservice.Exception.CourseIdMissingException;
 import com.haw.srs.customerservice.Exception.CourseNotFoundException;
 import com.haw.srs.customerservice.Exception.CustomerNotFoundException;
 import com.haw.srs.customerservice.Exception.MembershipMailNotSent;
+import com.haw.srs.customerservice.Exception.PreconditionFailedException;
 import com.haw.srs.customerservice.Repo.CourseRepository;
 import com.haw.srs.customerservice.Repo.CustomerRepository;
+import com.haw.srs.customerservice.Service.BulkEnrollmentResult;
 import com.haw.srs.customerservice.Service.CourseService;
+import com.haw.srs.customerservice.Service.CustomerPatch;
 import com.haw.srs.customerservice.Service.CustomerService;
+import com.haw.srs.customerservice.Service.ParticipantCountService;
+import com.haw.srs.customerservice.Service.WaitingListService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,13 +22,20 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyString;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 @ExtendWith(SpringExtension.class)
 @SpringBootTest(classes = Application.class, webEnvironment = SpringBootTest.WebEnvironment.NONE)
@@ -37,6 +51,12 @@ class CourseServiceTest {
     private CustomerRepository customerRepository;
     @Autowired
     private CourseRepository courseRepository;
+    @Autowired
+    private ParticipantCountService participantCountService;
+    @Autowired
+    private WaitingListService waitingListService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
 
     @MockBean
     private MailGateway mailGateway;
@@ -69,9 +89,38 @@ class CourseServiceTest {
                 .withMessageContaining("Could not find customer with lastname notExisting.");
     }
 
+    @Test
+    void enrollAllInCourseReportsEveryCustomer() throws CourseNotFoundException, CustomerNotFoundException {
+        Customer jane = customerRepository.save(new Customer("Jane", "Doe", Gender.FEMALE));
+        customerRepository.save(new Customer("John", "Smith", Gender.MALE));
+        Course course = courseRepository.save(new Course("Software Engineering 1"));
+        courseService.enrollInCourse("Smith", course);
+
+        BulkEnrollmentResult result = courseService.enrollAllInCourse(course.getId(),
+                List.of(jane.getId(), Long.MAX_VALUE), List.of("Smith", "notExisting", "Doe"));
+
+        assertThat(result.enrolled()).isEqualTo(1);
+        assertThat(result.items())
+                .extracting(BulkEnrollmentResult.Item::status)
+                .containsExactly(
+                        BulkEnrollmentResult.Status.ENROLLED,
+                        BulkEnrollmentResult.Status.NOT_FOUND,
+                        BulkEnrollmentResult.Status.ALREADY_ENROLLED,
+                        BulkEnrollmentResult.Status.NOT_FOUND,
+                        BulkEnrollmentResult.Status.ALREADY_ENROLLED);
+        assertEquals(2, participantCountService.of(course.getId()));
+        assertThat(customerService.findCustomerByLastname("Doe").getCourses()).hasSize(1);
+    }
+
+    @Test
+    void enrollAllInCourseFailBecauseOfCourseNotFound() {
+        assertThatExceptionOfType(CourseNotFoundException.class)
+                .isThrownBy(() -> courseService.enrollAllInCourse(Long.MAX_VALUE, List.of(), List.of("Doe")));
+    }
+
     @Test
     void transferCoursesSuccess() throws CustomerNotFoundException {
-        Customer from = new Customer("John", "Smith", Gender.MALE);
+        Customer from = customerRepository.save(new Customer("John", "Smith", Gender.MALE));
         Course course1 = new Course("Software Engineering 1");
         Course course2 = new Course("Software Engineering 2");
 
@@ -91,38 +140,81 @@ class CourseServiceTest {
                 .size().isEqualTo(0);
         assertThat(customerService.findCustomerByLastname(to.getLastName()).getCourses())
                 .size().isEqualTo(2);
+        assertEquals(1, participantCountService.of(course1.getId()));
+    }
+
+    @Test
+    void transferCoursesKeepsSharedCoursesOnce() throws CustomerNotFoundException {
+        customerRepository.save(new Customer("John", "Smith", Gender.MALE));
+        customerRepository.save(new Customer("Eva", "Miller", Gender.FEMALE));
+        Course shared = new Course("Software Engineering 1");
+        Course onlyFrom = new Course("Software Engineering 2");
+        Course onlyTo = new Course("Software Engineering 3");
+        courseService.enrollInCourse("Smith", shared);
+        courseService.enrollInCourse("Smith", onlyFrom);
+        courseService.enrollInCourse("Miller", shared);
+        courseService.enrollInCourse("Miller", onlyTo);
+
+        courseService.transferCourses("Smith", "Miller");
+
+        assertThat(customerService.findCustomerByLastname("Smith").getCourses()).isEmpty();
+        assertThat(customerService.findCustomerByLastname("Miller").getCourses())
+                .extracting(Course::getName)
+                .containsExactlyInAnyOrder("Software Engineering 1", "Software Engineering 2", "Software Engineering 3");
+        assertEquals(1, participantCountService.of(shared.getId()));
+        assertEquals(1, participantCountService.of(onlyFrom.getId()));
+        assertEquals(1, participantCountService.of(onlyTo.getId()));
+    }
+
+    @Test
+    void transferCoursesToSameCustomerChangesNothing() throws CustomerNotFoundException {
+        customerRepository.save(new Customer("John", "Smith", Gender.MALE));
+        Course course = new Course("Software Engineering 1");
+        courseService.enrollInCourse("Smith", course);
+
+        courseService.transferCourses("Smith", "Smith");
+
+        assertThat(customerService.findCustomerByLastname("Smith").getCourses()).hasSize(1);
+        assertEquals(1, participantCountService.of(course.getId()));
+    }
+
+    @Test
+    void transferCoursesFailBecauseOfCustomerNotFound() {
+        customerRepository.save(new Customer("John", "Smith", Gender.MALE));
+
+        assertThatExceptionOfType(CustomerNotFoundException.class)
+                .isThrownBy(() -> courseService.transferCourses("Smith", "notExisting"))
+                .withMessageContaining("notExisting");
     }
 
     @Test
     void cancelMembershipSuccess() throws CustomerNotFoundException, CourseNotFoundException, MembershipMailNotSent {
 
-        Customer customer = new Customer("Max", "Mustermann", Gender.MALE,"max.must@mail.com", null);
+        Customer customer = customerRepository.save(new Customer("Max", "Mustermann", Gender.MALE,"max.must@mail.com", null));
         Course course =new Course("Informationssysteme 2");
         courseService.enrollInCourse(customer.getLastName(), course);
 
-        when(mailGateway.sendMail(anyString(), anyString(), anyString())).thenReturn(true);
-
         courseService.cancelMembership(customer.getId(), course.getId());
-        assertEquals(0, course.getAnzahlTeilnehmer());
+        assertEquals(0, participantCountService.of(course.getId()));
+        verify(mailGateway).enqueueMail(eq("max.must@mail.com"), anyString(), anyString());
     }
 
     @Test
-    void cancelMembershipFailBecauseOfUnableToSendMail() throws CustomerNotFoundException {
-        // set up customer and course here
-        // ...
-        Customer customer = new Customer("Max", "Mustermann", Gender.MALE,"max.must@mail.com", null);
+    void cancelMembershipFailBecauseOfMissingMailAddress() throws CustomerNotFoundException {
+        // mails are only queued now, so the cancellation fails early if there is no address to send to
+        Customer customer = customerRepository.save(new Customer("Max", "Mustermann", Gender.MALE));
         Course course =new Course("Informationssysteme 2");
         courseService.enrollInCourse(customer.getLastName(), course);
 //        customer.addCourse(course);
 //        customerRepository.save(customer);
 //        courseRepository.save(course);
-        // configure MailGateway-mock
-        when(mailGateway.sendMail(anyString(), anyString(), anyString())).thenReturn(false);
 
         assertThatExceptionOfType(MembershipMailNotSent.class)
                 .isThrownBy(() -> courseService.cancelMembership(customer.getId(), course.getId()))
                 .withMessageContaining("Could not send membership mail to");
-        assertEquals(0, course.getAnzahlTeilnehmer());
+        // the customer is still a participant
+        assertEquals(1, participantCountService.of(course.getId()));
+        verify(mailGateway, never()).enqueueMail(any(), any(), any());
 
     }
     
@@ -130,17 +222,157 @@ class CourseServiceTest {
     void cancelMembershipSuccessBDDStyle() throws CustomerNotFoundException, CourseNotFoundException, MembershipMailNotSent {
         // set up customer and course here
         // ...
-        Customer customer = new Customer("Max", "Mustermann", Gender.MALE,"max.must@mail.com", null);
+        Customer customer = customerRepository.save(new Customer("Max", "Mustermann", Gender.MALE,"max.must@mail.com", null));
         Course course =new Course("Informationssysteme 2");
         courseService.enrollInCourse(customer.getLastName(), course);
 //        customer.addCourse(course);
 //        customerRepository.save(customer);
 //        courseRepository.save(course);
-        // configure MailGateway-mock with BDD-style
-        given(mailGateway.sendMail(anyString(), anyString(), anyString())).willReturn(true);
-
         courseService.cancelMembership(customer.getId(), course.getId());
-        assertEquals(0, course.getAnzahlTeilnehmer());
+        assertEquals(0, participantCountService.of(course.getId()));
+        // verify MailGateway-mock with BDD-style
+        then(mailGateway).should().enqueueMail(eq("max.must@mail.com"), anyString(), anyString());
+    }
+
+    @Test
+    void enrollIntoFullCoursePutsCustomerOnWaitingList() throws CustomerNotFoundException {
+        Course course = limitedCourse(1);
+        customerRepository.save(new Customer("Max", "Mustermann", Gender.MALE, "max.must@mail.com", null));
+        Customer waiting = customerRepository.save(new Customer("Erika", "Musterfrau", Gender.FEMALE, "erika@mail.com", null));
+
+        assertThat(courseService.enrollInCourse("Mustermann", course)).isEqualTo(BulkEnrollmentResult.Status.ENROLLED);
+        assertThat(courseService.enrollInCourse("Musterfrau", course)).isEqualTo(BulkEnrollmentResult.Status.WAITING);
+        assertThat(courseService.enrollInCourse("Musterfrau", course)).isEqualTo(BulkEnrollmentResult.Status.WAITING);
+
+        assertEquals(1, participantCountService.of(course.getId()));
+        assertThat(waitingListService.waitingCustomers(course.getId())).containsExactly(waiting.getId());
+        assertThat(customerService.findCustomerByLastname("Musterfrau").getCourses()).isEmpty();
+    }
+
+    @Test
+    void cancelMembershipPromotesCustomerWaitingLongest() throws CustomerNotFoundException, CourseNotFoundException, MembershipMailNotSent {
+        Course course = limitedCourse(1);
+        Customer member = customerRepository.save(new Customer("Max", "Mustermann", Gender.MALE, "max.must@mail.com", null));
+        customerRepository.save(new Customer("Erika", "Musterfrau", Gender.FEMALE, "erika@mail.com", null));
+        Customer last = customerRepository.save(new Customer("John", "Doe", Gender.MALE, "john.doe@mail.com", null));
+        courseService.enrollInCourse("Mustermann", course);
+        courseService.enrollInCourse("Musterfrau", course);
+        courseService.enrollInCourse("Doe", course);
+
+        courseService.cancelMembership(member.getId(), course.getId());
+
+        assertEquals(1, participantCountService.of(course.getId()));
+        assertThat(customerService.findCustomerByLastname("Musterfrau").getCourses()).containsExactly(course);
+        assertThat(waitingListService.waitingCustomers(course.getId())).containsExactly(last.getId());
+        verify(mailGateway).enqueueMail(eq("erika@mail.com"), anyString(), anyString());
+    }
+
+    @Test
+    void raisingTheCapacityPromotesWaitingCustomers()
+            throws CustomerNotFoundException, CourseNotFoundException, PreconditionFailedException {
+        Course course = limitedCourse(1);
+        for (String lastName : List.of("Mustermann", "Musterfrau", "Doe")) {
+            customerRepository.save(new Customer("Jane", lastName, Gender.FEMALE, lastName + "@mail.com", null));
+            courseService.enrollInCourse(lastName, course);
+        }
+
+        courseService.updateCourse(course.getId(), course.getName(), 2, null);
+
+        assertEquals(2, participantCountService.of(course.getId()));
+        assertThat(customerService.findCustomerByLastname("Musterfrau").getCourses()).containsExactly(course);
+        assertThat(waitingListService.waitingCustomers(course.getId()))
+                .containsExactly(customerRepository.findIdByLastName("Doe").orElseThrow());
+    }
+
+    @Test
+    void transferOfSharedCoursePromotesWaitingCustomer() throws CustomerNotFoundException {
+        Course course = limitedCourse(2);
+        for (String lastName : List.of("Mustermann", "Musterfrau", "Doe")) {
+            customerRepository.save(new Customer("Jane", lastName, Gender.FEMALE, lastName + "@mail.com", null));
+            courseService.enrollInCourse(lastName, course);
+        }
+
+        courseService.transferCourses("Mustermann", "Musterfrau");
+
+        assertEquals(2, participantCountService.of(course.getId()));
+        assertThat(customerService.findCustomerByLastname("Doe").getCourses()).containsExactly(course);
+        assertThat(waitingListService.waitingCustomers(course.getId())).isEmpty();
+    }
+
+    @Test
+    void patchingAwayACoursePromotesWaitingCustomer() throws CustomerNotFoundException, CourseIdMissingException,
+            CourseNotFoundException, CourseFullException, PreconditionFailedException {
+        Course course = limitedCourse(1);
+        Customer member = customerRepository.save(new Customer("Max", "Mustermann", Gender.MALE, "max.must@mail.com", null));
+        customerRepository.save(new Customer("Erika", "Musterfrau", Gender.FEMALE, "erika@mail.com", null));
+        courseService.enrollInCourse("Mustermann", course);
+        courseService.enrollInCourse("Musterfrau", course);
+
+        CustomerPatch patch = new CustomerPatch();
+        patch.setCourseIds(Optional.of(List.of()));
+        customerService.patchCustomer(member.getId(), patch, null);
+
+        assertEquals(1, participantCountService.of(course.getId()));
+        assertThat(customerService.findCustomerByLastname("Musterfrau").getCourses()).containsExactly(course);
+        assertThat(waitingListService.waitingCustomers(course.getId())).isEmpty();
+    }
+
+    @Test
+    void patchingAwayACourseWithoutMaterializedCountCountsTheRemainingMembers() throws CustomerNotFoundException,
+            CourseIdMissingException, CourseNotFoundException, CourseFullException, PreconditionFailedException {
+        Course course = courseRepository.save(new Course("Informationssysteme 2"));
+        Customer member = customerRepository.save(new Customer("Max", "Mustermann", Gender.MALE, "max.must@mail.com", null));
+        joinWithoutCount(member, course);
+
+        CustomerPatch patch = new CustomerPatch();
+        patch.setCourseIds(Optional.of(List.of()));
+        customerService.patchCustomer(member.getId(), patch, null);
+
+        assertEquals(0, participantCountService.of(course.getId()));
+    }
+
+    @Test
+    void countThatWouldDropBelowZeroIsRecounted() throws CustomerNotFoundException, CourseIdMissingException,
+            CourseNotFoundException, CourseFullException, PreconditionFailedException {
+        // materialized with 0, the memberships are added behind the count's back
+        Course course = limitedCourse(2);
+        Customer member = customerRepository.save(new Customer("Max", "Mustermann", Gender.MALE, "max.must@mail.com", null));
+        joinWithoutCount(member, course);
+        joinWithoutCount(customerRepository.save(new Customer("Erika", "Musterfrau", Gender.FEMALE, "erika@mail.com", null)), course);
+
+        CustomerPatch patch = new CustomerPatch();
+        patch.setCourseIds(Optional.of(List.of()));
+        customerService.patchCustomer(member.getId(), patch, null);
+
+        assertEquals(1, participantCountService.of(course.getId()));
+    }
+
+    @Test
+    void enrollAllInFullCourseQueuesTheRest() throws CourseNotFoundException {
+        Course course = limitedCourse(2);
+        List<Long> ids = List.of("Mustermann", "Musterfrau", "Doe").stream()
+                .map(lastName -> customerRepository.save(new Customer("Jane", lastName, Gender.FEMALE)).getId())
+                .toList();
+
+        BulkEnrollmentResult result = courseService.enrollAllInCourse(course.getId(), ids, List.of());
+
+        assertThat(result.enrolled()).isEqualTo(2);
+        assertThat(result.items()).extracting(BulkEnrollmentResult.Item::status).containsExactly(
+                BulkEnrollmentResult.Status.ENROLLED, BulkEnrollmentResult.Status.ENROLLED, BulkEnrollmentResult.Status.WAITING);
+        assertEquals(2, participantCountService.of(course.getId()));
+        assertThat(waitingListService.waitingCustomers(course.getId())).containsExactly(ids.get(2));
+    }
+
+    // a membership the participant count does not know of
+    private void joinWithoutCount(Customer customer, Course course) {
+        transactionTemplate.executeWithoutResult(status -> customerRepository.findWithCoursesById(customer.getId()).orElseThrow()
+                .addCourse(courseRepository.getReferenceById(course.getId())));
+    }
+
+    private Course limitedCourse(int capacity) {
+        Course course = new Course("Informationssysteme 2");
+        course.setCapacity(capacity);
+        return courseService.createCourse(course);
     }
 
     @Test
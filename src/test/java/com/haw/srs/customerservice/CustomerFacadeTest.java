@@ -1,8 +1,13 @@
 package com.haw.srs.customerservice;
 
+import com.haw.srs.customerservice.Exception.CourseNotFoundException;
+import com.haw.srs.customerservice.Exception.CustomerNotFoundException;
+import com.haw.srs.customerservice.Exception.PreconditionFailedException;
 import com.haw.srs.customerservice.Repo.CustomerRepository;
+import com.haw.srs.customerservice.Service.CourseService;
 import io.restassured.RestAssured;
 import io.restassured.http.ContentType;
+import io.restassured.path.json.JsonPath;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,8 +19,12 @@ import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.http.HttpStatus;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
 import static io.restassured.RestAssured.given;
 import static io.restassured.RestAssured.when;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
 
 @ExtendWith(SpringExtension.class)
@@ -30,6 +39,9 @@ class CustomerFacadeTest {
     @Autowired
     private CustomerRepository customerRepository;
 
+    @Autowired
+    private CourseService courseService;
+
     private Customer customer;
 
     @BeforeEach
@@ -56,6 +68,193 @@ class CustomerFacadeTest {
         //@formatter:on
     }
 
+    @Test
+    void getCustomersPagedByCursor() {
+        customerRepository.save(new Customer("Jane", "Doe", Gender.FEMALE));
+
+        //@formatter:off
+        given().
+                queryParam("size", 1).
+        when().
+                get("/customers").
+        then().
+                statusCode(HttpStatus.OK.value()).
+                header("Link", containsString("after=" + customer.getId())).
+                body("", hasSize(1)).
+                body("lastName", hasItems("Sarstedt"));
+
+        given().
+                queryParam("after", customer.getId()).
+                queryParam("size", 1).
+        when().
+                get("/customers").
+        then().
+                statusCode(HttpStatus.OK.value()).
+                body("", hasSize(1)).
+                body("lastName", hasItems("Doe"));
+        //@formatter:on
+    }
+
+    @Test
+    void getCustomerListsCoursesCompactly() throws CustomerNotFoundException {
+        Customer withPhone = customerRepository.save(
+                new Customer("Jane", "Doe", Gender.FEMALE, "jane.doe@dummy.org", new PhoneNumber("+49-040-428758434")));
+        Course course = new Course("Software Engineering 1");
+        courseService.enrollInCourse("Doe", course);
+
+        //@formatter:off
+        when().
+                get("/customers/{id}", withPhone.getId()).
+        then().
+                statusCode(HttpStatus.OK.value()).
+                body("email", equalTo("jane.doe@dummy.org")).
+                body("phoneNumber.areaCode", equalTo("040")).
+                body("courses", hasSize(1)).
+                body("courses[0].id", equalTo(course.getId().intValue())).
+                body("courses[0].name", equalTo("Software Engineering 1")).
+                body("courses[0]", not(hasKey("anzahlTeilnehmer")));
+
+        when().
+                get("/customers/{id}", customer.getId()).
+        then().
+                statusCode(HttpStatus.OK.value()).
+                body("phoneNumber", nullValue()).
+                body("courses", empty());
+        //@formatter:on
+    }
+
+    @Test
+    void streamCustomersAsNdjson() {
+        customerRepository.save(new Customer("Jane", "Doe", Gender.FEMALE));
+
+        //@formatter:off
+        String body =
+        when().
+                get("/customers/stream").
+        then().
+                statusCode(HttpStatus.OK.value()).
+                contentType(containsString("application/x-ndjson")).
+        extract().
+                asString();
+        //@formatter:on
+
+        assertThat(body.split("\n")).hasSize(2);
+        assertThat(body).contains("\"lastName\":\"Sarstedt\"", "\"lastName\":\"Doe\"");
+    }
+
+    @Test
+    void searchCustomersByNamePrefix() {
+        customerRepository.save(new Customer("Jean-Paul", "Sartre", Gender.MALE));
+        customerRepository.save(new Customer("Jane", "Doe", Gender.FEMALE));
+
+        //@formatter:off
+        given().
+                queryParam("lastName", "Sar").
+        when().
+                get("/customers/search").
+        then().
+                statusCode(HttpStatus.OK.value()).
+                body("lastName", containsInAnyOrder("Sarstedt", "Sartre"));
+
+        given().
+                queryParam("lastName", "Sar").
+                queryParam("firstName", "Jean").
+        when().
+                get("/customers/search").
+        then().
+                statusCode(HttpStatus.OK.value()).
+                body("lastName", contains("Sartre"));
+        //@formatter:on
+    }
+
+    @Test
+    void searchCustomersCombinesFilters() throws CustomerNotFoundException {
+        customerRepository.save(new Customer("Jane", "Doe", Gender.FEMALE, "jane.doe@dummy.org", null));
+        customerRepository.save(new Customer("John", "Doe", Gender.MALE, "john.doe@dummy.org", null));
+        Course course = new Course("Software Engineering 1");
+        courseService.enrollInCourse("Sarstedt", course);
+
+        //@formatter:off
+        given().
+                queryParam("email", "jane.doe@dummy.org").
+        when().
+                get("/customers/search").
+        then().
+                statusCode(HttpStatus.OK.value()).
+                body("firstName", contains("Jane"));
+
+        given().
+                queryParam("gender", "MALE").
+                queryParam("course", course.getId()).
+        when().
+                get("/customers/search").
+        then().
+                statusCode(HttpStatus.OK.value()).
+                body("lastName", contains("Sarstedt")).
+                body("[0].courses.name", contains("Software Engineering 1"));
+
+        given().
+                queryParam("gender", "FEMALE").
+                queryParam("course", course.getId()).
+        when().
+                get("/customers/search").
+        then().
+                statusCode(HttpStatus.OK.value()).
+                body("", hasSize(0));
+        //@formatter:on
+    }
+
+    @Test
+    void searchCustomersTreatsWildcardsLiterally() {
+        //@formatter:off
+        given().
+                queryParam("lastName", "%").
+        when().
+                get("/customers/search").
+        then().
+                statusCode(HttpStatus.OK.value()).
+                body("", hasSize(0));
+        //@formatter:on
+    }
+
+    @Test
+    void searchCustomersPagedByCursor() {
+        customerRepository.save(new Customer("Jane", "Sarstedt", Gender.FEMALE));
+
+        //@formatter:off
+        given().
+                queryParam("lastName", "Sarstedt").
+                queryParam("size", 1).
+        when().
+                get("/customers/search").
+        then().
+                statusCode(HttpStatus.OK.value()).
+                header("Link", allOf(containsString("lastName=Sarstedt"), containsString("after=" + customer.getId()))).
+                body("firstName", contains("Stefan"));
+
+        given().
+                queryParam("lastName", "Sarstedt").
+                queryParam("after", customer.getId()).
+        when().
+                get("/customers/search").
+        then().
+                statusCode(HttpStatus.OK.value()).
+                body("firstName", contains("Jane"));
+        //@formatter:on
+    }
+
+    @Test
+    void searchCustomersFailsWithUnknownGender() {
+        //@formatter:off
+        given().
+                queryParam("gender", "NONE").
+        when().
+                get("/customers/search").
+        then().
+                statusCode(HttpStatus.BAD_REQUEST.value());
+        //@formatter:on
+    }
+
     @Test
     void getCustomerSuccess() {
         //@formatter:off
@@ -93,6 +292,192 @@ class CustomerFacadeTest {
         //@formatter:on
     }
 
+    @Test
+    void createCustomerInFullCourseFailsWithConflict() throws CustomerNotFoundException {
+        Course course = limitedCourse(1);
+        courseService.enrollInCourse("Sarstedt", course);
+
+        //@formatter:off
+        given().
+                contentType(ContentType.JSON).
+                body("{\"firstName\": \"Jane\", \"lastName\": \"Doe\", \"gender\": \"FEMALE\", " +
+                        "\"courses\": [{\"id\": " + course.getId() + "}]}").
+        when().
+                post("/customers").
+        then().
+                statusCode(HttpStatus.CONFLICT.value());
+
+        when().
+                get("/courses/{id}", course.getId()).
+        then().
+                statusCode(HttpStatus.OK.value()).
+                body("anzahlTeilnehmer", equalTo(1));
+        //@formatter:on
+
+        assertThat(customerRepository.findByLastName("Doe")).isEmpty();
+    }
+
+    @Test
+    void importCustomersFromCsv() {
+        String csv = """
+                firstName,lastName,gender,email,phoneNumber
+                Jane,Doe,female,jane.doe@dummy.org,+49-040-12345678
+                John,Roe,MALE,not-an-email,
+                Max,Sarstedt,MALE,max@dummy.org,
+                Erika,Mustermann,,,+49-40-1234
+                """;
+
+        //@formatter:off
+        List<String> report = given().
+                contentType("text/csv").
+                body(csv).
+        when().
+                post("/customers/import").
+        then().
+                statusCode(HttpStatus.OK.value()).
+                contentType("application/x-ndjson").
+                extract().asString().lines().toList();
+        //@formatter:on
+
+        assertThat(report).hasSize(3);
+        assertThat(JsonPath.from(report.get(0)).getInt("row")).isEqualTo(2);
+        assertThat(JsonPath.from(report.get(0)).getString("error")).contains("email");
+        assertThat(JsonPath.from(report.get(1)).getInt("row")).isEqualTo(3);
+        assertThat(JsonPath.from(report.get(1)).getString("error")).contains("already exists");
+        JsonPath totals = JsonPath.from(report.get(2));
+        assertThat(totals.getLong("processed")).isEqualTo(4);
+        assertThat(totals.getLong("imported")).isEqualTo(2);
+        assertThat(totals.getLong("failed")).isEqualTo(2);
+
+        Customer doe = customerRepository.findByLastName("Doe").orElseThrow();
+        assertThat(doe.getGender()).isEqualTo(Gender.FEMALE);
+        assertThat(doe.getPhoneNumber().getAreaCode()).isEqualTo("040");
+        assertThat(customerRepository.existsByLastName("Mustermann")).isTrue();
+        assertThat(customerRepository.existsByLastName("Roe")).isFalse();
+    }
+
+    @Test
+    void importCustomersFromNdjson() {
+        String ndjson = """
+                {"firstName":"Jane","lastName":"Doe","email":"jane.doe@dummy.org"}
+                {"firstName":"John","lastName":"Doe"}
+                {"firstName":"Max","lastName":"","gender":"MALE"}
+                """;
+
+        //@formatter:off
+        List<String> report = given().
+                contentType("application/x-ndjson").
+                body(ndjson.getBytes(StandardCharsets.UTF_8)).
+        when().
+                post("/customers/import").
+        then().
+                statusCode(HttpStatus.OK.value()).
+                extract().asString().lines().toList();
+        //@formatter:on
+
+        assertThat(report).extracting(line -> JsonPath.from(line).getString("error"))
+                .containsExactly("lastName is missing", "customer Doe already exists", null);
+        assertThat(JsonPath.from(report.get(2)).getLong("imported")).isEqualTo(1);
+    }
+
+    @Test
+    void importCustomersRejectsValuesLongerThanTheirColumns() {
+        String ndjson = """
+                {"firstName":"Jane","lastName":"%s"}
+                {"firstName":"John","lastName":"Roe","email":"%s@dummy.org"}
+                """.formatted("D".repeat(256), "j".repeat(250));
+
+        //@formatter:off
+        List<String> report = given().
+                contentType("application/x-ndjson").
+                body(ndjson.getBytes(StandardCharsets.UTF_8)).
+        when().
+                post("/customers/import").
+        then().
+                statusCode(HttpStatus.OK.value()).
+                extract().asString().lines().toList();
+        //@formatter:on
+
+        assertThat(report).extracting(line -> JsonPath.from(line).getString("error"))
+                .containsExactly("lastName is longer than 255 characters", "email is longer than 255 characters", null);
+        assertThat(JsonPath.from(report.get(2)).getLong("failed")).isEqualTo(2);
+    }
+
+    @Test
+    void importCustomersStopsAtMalformedRow() {
+        String ndjson = """
+                {"firstName":"Jane","lastName":"Doe"}
+                {"firstName":"John","lastName":
+                {"firstName":"Max","lastName":"Roe"}
+                """;
+
+        //@formatter:off
+        List<String> report = given().
+                contentType("application/x-ndjson").
+                body(ndjson.getBytes(StandardCharsets.UTF_8)).
+        when().
+                post("/customers/import").
+        then().
+                statusCode(HttpStatus.OK.value()).
+                extract().asString().lines().toList();
+        //@formatter:on
+
+        assertThat(JsonPath.from(report.get(0)).getInt("row")).isEqualTo(2);
+        assertThat(JsonPath.from(report.get(0)).getString("error")).startsWith("unreadable row");
+        assertThat(JsonPath.from(report.get(report.size() - 1)).getLong("imported")).isEqualTo(1);
+        assertThat(customerRepository.existsByLastName("Doe")).isTrue();
+        assertThat(customerRepository.existsByLastName("Roe")).isFalse();
+    }
+
+    @Test
+    void exportCustomersAsCsv() throws CustomerNotFoundException {
+        customerRepository.save(new Customer("Jane", "Doe", Gender.FEMALE, "jane.doe@dummy.org", null));
+        Course course = new Course("Software Engineering 1");
+        courseService.enrollInCourse("Sarstedt", course);
+
+        //@formatter:off
+        List<String> rows = given().
+                accept("text/csv").
+        when().
+                get("/customers/export").
+        then().
+                statusCode(HttpStatus.OK.value()).
+                contentType(startsWith("text/csv")).
+                extract().asString().lines().toList();
+        //@formatter:on
+
+        // quoting is left to the csv writer
+        assertThat(rows).extracting(row -> row.replace("\"", "")).containsExactlyInAnyOrder(
+                "customerId,firstName,lastName,gender,email,courseId,courseName",
+                customer.getId() + ",Stefan,Sarstedt,MALE,," + course.getId() + ",Software Engineering 1",
+                customerRepository.findIdByLastName("Doe").orElseThrow() + ",Jane,Doe,FEMALE,jane.doe@dummy.org,,");
+        assertThat(rows.get(0)).startsWith("customerId");
+    }
+
+    @Test
+    void exportCustomersAsNdjson() throws CustomerNotFoundException {
+        Course course = new Course("Software Engineering 1");
+        courseService.enrollInCourse("Sarstedt", course);
+
+        //@formatter:off
+        List<String> rows = given().
+                accept("application/x-ndjson").
+        when().
+                get("/customers/export").
+        then().
+                statusCode(HttpStatus.OK.value()).
+                contentType("application/x-ndjson").
+                extract().asString().lines().toList();
+        //@formatter:on
+
+        assertThat(rows).hasSize(1);
+        JsonPath row = JsonPath.from(rows.get(0));
+        assertThat(row.getLong("customerId")).isEqualTo(customer.getId());
+        assertThat(row.getString("lastName")).isEqualTo("Sarstedt");
+        assertThat(row.getLong("courseId")).isEqualTo(course.getId());
+        assertThat(row.getString("courseName")).isEqualTo("Software Engineering 1");
+    }
+
     @Test
     void updateCustomerSuccess() {
         customer.setFirstName("Stefanie");
@@ -114,6 +499,176 @@ class CustomerFacadeTest {
                 body("firstName", is(equalTo("Stefanie")));
         //@formatter:on
     }
+    @Test
+    void patchCustomerChangesOnlyGivenProperties() {
+        //@formatter:off
+        given().
+                contentType("application/merge-patch+json").
+                body("{\"email\": \"stefan@dummy.org\", \"gender\": null}").
+        when().
+                patch("/customers/{id}", customer.getId()).
+        then().
+                statusCode(HttpStatus.OK.value()).
+                body("email", equalTo("stefan@dummy.org")).
+                body("gender", nullValue()).
+                body("firstName", equalTo("Stefan")).
+                body("lastName", equalTo("Sarstedt"));
+        //@formatter:on
+    }
+
+    @Test
+    void patchCustomerReplacesCourses() throws CustomerNotFoundException {
+        Course kept = new Course("Software Engineering 1");
+        Course dropped = new Course("Software Engineering 2");
+        courseService.enrollInCourse("Sarstedt", kept);
+        courseService.enrollInCourse("Sarstedt", dropped);
+
+        //@formatter:off
+        given().
+                contentType("application/merge-patch+json").
+                body("{\"courseIds\": [" + kept.getId() + "]}").
+        when().
+                patch("/customers/{id}", customer.getId()).
+        then().
+                statusCode(HttpStatus.OK.value()).
+                body("courses.id", contains(kept.getId().intValue()));
+        //@formatter:on
+    }
+
+    @Test
+    void patchCustomerFailsWithUnknownCourse() {
+        //@formatter:off
+        given().
+                contentType("application/merge-patch+json").
+                body("{\"courseIds\": [" + Integer.MAX_VALUE + "]}").
+        when().
+                patch("/customers/{id}", customer.getId()).
+        then().
+                statusCode(HttpStatus.NOT_FOUND.value());
+        //@formatter:on
+
+        assertThat(customerRepository.findWithCoursesById(customer.getId()).orElseThrow().getCourses()).isEmpty();
+    }
+
+    @Test
+    void updateCustomerFailsWithCourseWithoutId() {
+        customer.setFirstName("Stefanie");
+        customer.addCourse(new Course("Software Engineering 1"));
+
+        //@formatter:off
+        given().
+                contentType(ContentType.JSON).
+                body(customer).
+        when().
+                put("/customers").
+        then().
+                statusCode(HttpStatus.BAD_REQUEST.value());
+        //@formatter:on
+
+        assertThat(customerRepository.findById(customer.getId()).orElseThrow().getFirstName()).isEqualTo("Stefan");
+    }
+
+    @Test
+    void patchCustomerFailsWithMissingCourseId() {
+        //@formatter:off
+        given().
+                contentType("application/merge-patch+json").
+                body("{\"firstName\": \"Stefanie\", \"courseIds\": [null]}").
+        when().
+                patch("/customers/{id}", customer.getId()).
+        then().
+                statusCode(HttpStatus.BAD_REQUEST.value());
+        //@formatter:on
+
+        assertThat(customerRepository.findById(customer.getId()).orElseThrow().getFirstName()).isEqualTo("Stefan");
+    }
+
+    @Test
+    void patchCustomerFailsWhenNotFound() {
+        //@formatter:off
+        given().
+                contentType("application/merge-patch+json").
+                body("{\"email\": \"stefan@dummy.org\"}").
+        when().
+                patch("/customers/{id}", Integer.MAX_VALUE).
+        then().
+                statusCode(HttpStatus.NOT_FOUND.value());
+        //@formatter:on
+    }
+
+    @Test
+    void getCustomerIsNotModifiedUntilItOrItsCoursesChange()
+            throws CustomerNotFoundException, CourseNotFoundException, PreconditionFailedException {
+        String eTag = when().get("/customers/{id}", customer.getId()).then().statusCode(HttpStatus.OK.value())
+                .extract().header("ETag");
+
+        //@formatter:off
+        given().
+                header("If-None-Match", eTag).
+        when().
+                get("/customers/{id}", customer.getId()).
+        then().
+                statusCode(HttpStatus.NOT_MODIFIED.value()).
+                header("ETag", equalTo(eTag)).
+                body(emptyString());
+        //@formatter:on
+
+        // a new membership changes the customer's tag
+        Course course = new Course("Software Engineering 1");
+        courseService.enrollInCourse("Sarstedt", course);
+        String enrolledETag = given().header("If-None-Match", eTag).when().get("/customers/{id}", customer.getId())
+                .then().statusCode(HttpStatus.OK.value()).body("courses.name", contains("Software Engineering 1"))
+                .extract().header("ETag");
+        assertThat(enrolledETag).isNotEqualTo(eTag);
+
+        // so does a renamed course, whose name the customer's JSON contains
+        courseService.updateCourse(course.getId(), "Software Engineering 2", null, null);
+        //@formatter:off
+        given().
+                header("If-None-Match", enrolledETag).
+        when().
+                get("/customers/{id}", customer.getId()).
+        then().
+                statusCode(HttpStatus.OK.value()).
+                header("ETag", not(equalTo(enrolledETag))).
+                body("courses.name", contains("Software Engineering 2"));
+        //@formatter:on
+    }
+
+    @Test
+    void patchCustomerWithStaleETagFailsWithPreconditionFailed() {
+        String eTag = when().get("/customers/{id}", customer.getId()).then().extract().header("ETag");
+
+        //@formatter:off
+        String newETag = given().
+                contentType("application/merge-patch+json").
+                header("If-Match", eTag).
+                body("{\"email\": \"stefan@dummy.org\"}").
+        when().
+                patch("/customers/{id}", customer.getId()).
+        then().
+                statusCode(HttpStatus.OK.value()).
+                extract().header("ETag");
+
+        // a second client still holding the first tag must not overwrite the email
+        given().
+                contentType("application/merge-patch+json").
+                header("If-Match", eTag).
+                body("{\"email\": \"sarstedt@dummy.org\"}").
+        when().
+                patch("/customers/{id}", customer.getId()).
+        then().
+                statusCode(HttpStatus.PRECONDITION_FAILED.value());
+
+        given().
+        when().
+                get("/customers/{id}", customer.getId()).
+        then().
+                header("ETag", equalTo(newETag)).
+                body("email", equalTo("stefan@dummy.org"));
+        //@formatter:on
+    }
+
     @Test
     void updateCustomerFailBecauseCustNotFound() {
 
@@ -159,6 +714,52 @@ class CustomerFacadeTest {
         //@formatter:on
     }
 
+    @Test
+    void deleteEnrolledCustomerFreesItsSeats() throws CustomerNotFoundException {
+        Course course = new Course("Software Engineering 1");
+        courseService.enrollInCourse("Sarstedt", course);
+        Customer other = customerRepository.save(new Customer("Jane", "Doe", Gender.FEMALE));
+        courseService.enrollInCourse("Doe", course);
+
+        //@formatter:off
+        when().
+                delete("/customers/{id}", customer.getId()).
+        then().
+                statusCode(HttpStatus.OK.value());
+
+        when().
+                get("/courses/{id}", course.getId()).
+        then().
+                statusCode(HttpStatus.OK.value()).
+                body("anzahlTeilnehmer", equalTo(1));
+        //@formatter:on
+
+        assertThat(customerRepository.findWithCoursesById(other.getId()).orElseThrow().getCourses()).containsExactly(course);
+    }
+
+    @Test
+    void deleteCustomerPromotesCustomerWaitingForItsSeat() throws CustomerNotFoundException {
+        Course course = limitedCourse(1);
+        courseService.enrollInCourse("Sarstedt", course);
+        Customer waiting = customerRepository.save(new Customer("Jane", "Doe", Gender.FEMALE));
+        courseService.enrollInCourse("Doe", course);
+
+        //@formatter:off
+        when().
+                delete("/customers/{id}", customer.getId()).
+        then().
+                statusCode(HttpStatus.OK.value());
+
+        when().
+                get("/courses/{id}", course.getId()).
+        then().
+                statusCode(HttpStatus.OK.value()).
+                body("anzahlTeilnehmer", equalTo(1));
+        //@formatter:on
+
+        assertThat(customerRepository.findWithCoursesById(waiting.getId()).orElseThrow().getCourses()).containsExactly(course);
+    }
+
     @Test
     void createCustomerFailsWithMalformedJson() {
         String badJson = "{ \"firstName\": \"Max\", "; // unvollständig
@@ -189,6 +790,9 @@ class CustomerFacadeTest {
                 .body("", hasSize(0));
     }
 
-
-
-}
\ No newline at end of file
+    private Course limitedCourse(int capacity) {
+        Course course = new Course("Informationssysteme 2");
+        course.setCapacity(capacity);
+        return courseService.createCourse(course);
+    }
+}
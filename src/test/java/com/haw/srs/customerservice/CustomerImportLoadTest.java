@@ -0,0 +1,126 @@
+package com.haw.srs.customerservice;
+
+import com.haw.srs.customerservice.Repo.CustomerRepository;
+import io.restassured.path.json.JsonPath;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Imports {@value #ROWS} CSV rows, generated while they are uploaded, with every {@value #INVALID_EVERY}th row carrying
+ * an invalid email. The database is a file so that only the import itself counts against the heap, which is fixed
+ * to 384m by {@code ./gradlew importLoadTest}: far less than the file, let alone a million customer entities.
+ */
+@Tag("load")
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = Application.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "customerservice.mail.outbox.poll-interval=PT1H")
+class CustomerImportLoadTest {
+
+    private static final int ROWS = 1_000_000;
+    private static final int INVALID_EVERY = 1000;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @DynamicPropertySource
+    static void fileDatabase(DynamicPropertyRegistry registry) throws IOException {
+        String file = Files.createTempDirectory("import").resolve("customers").toString();
+        registry.add("spring.datasource.url", () -> "jdbc:h2:file:" + file + ";DB_CLOSE_ON_EXIT=FALSE");
+    }
+
+    @Test
+    void importsMillionRowsWithBoundedHeap() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/customers/import"))
+                .header("Content-Type", "text/csv")
+                .POST(HttpRequest.BodyPublishers.ofInputStream(CustomerImportLoadTest::generateCsv))
+                .build();
+
+        long existing = customerRepository.count();
+        AtomicLong errors = new AtomicLong();
+        AtomicReference<String> last = new AtomicReference<>();
+        long start = System.nanoTime();
+        HttpResponse<Stream<String>> response = HttpClient.newHttpClient()
+                .send(request, HttpResponse.BodyHandlers.ofLines());
+        assertThat(response.statusCode()).isEqualTo(200);
+        try (var lines = response.body()) {
+            lines.forEach(line -> {
+                if (line.contains("\"error\"")) {
+                    errors.incrementAndGet();
+                } else if (JsonPath.from(line).getLong("processed") % 100_000 == 0) {
+                    System.out.println(line);
+                }
+                last.set(line);
+            });
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        JsonPath totals = JsonPath.from(last.get());
+        System.out.printf("%nimported %d rows in %dms (%.0f rows/s), max heap %dm%n", totals.getLong("imported"), millis,
+                totals.getLong("processed") * 1000.0 / millis, Runtime.getRuntime().maxMemory() / (1024 * 1024));
+        assertThat(totals.getLong("processed")).isEqualTo(ROWS);
+        assertThat(totals.getLong("failed")).isEqualTo(ROWS / INVALID_EVERY);
+        assertThat(totals.getLong("imported")).isEqualTo(ROWS - ROWS / INVALID_EVERY);
+        assertThat(errors.get()).isEqualTo(ROWS / INVALID_EVERY);
+        assertThat(customerRepository.count()).isEqualTo(existing + ROWS - ROWS / INVALID_EVERY);
+    }
+
+    /**
+     * The CSV file, one row rendered at a time while the client reads it.
+     */
+    private static InputStream generateCsv() {
+        return new InputStream() {
+
+            private int row;
+            private byte[] line = "firstName,lastName,gender,email,phoneNumber\n".getBytes(StandardCharsets.UTF_8);
+            private int position;
+
+            @Override
+            public int read() {
+                byte[] single = new byte[1];
+                return read(single, 0, 1) < 0 ? -1 : single[0] & 0xff;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) {
+                if (position == line.length) {
+                    if (row == ROWS) {
+                        return -1;
+                    }
+                    row++;
+                    String email = row % INVALID_EVERY == 0 ? "invalid" + row : "import" + row + "@dummy.org";
+                    line = ("First" + row + ",Import" + row + ",FEMALE," + email + ",+49-40-" + (10_000_000 + row) + "\n")
+                            .getBytes(StandardCharsets.UTF_8);
+                    position = 0;
+                }
+                int count = Math.min(length, line.length - position);
+                System.arraycopy(line, position, buffer, offset, count);
+                position += count;
+                return count;
+            }
+        };
+    }
+}
@@ -1,5 +1,6 @@
 package com.haw.srs.customerservice;
 
+import com.haw.srs.customerservice.Exception.AmbiguousLastNameException;
 import com.haw.srs.customerservice.Repo.CustomerRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -9,6 +10,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 
 @ExtendWith(SpringExtension.class)
 @SpringBootTest(classes = Application.class, webEnvironment = SpringBootTest.WebEnvironment.NONE)
@@ -35,4 +37,12 @@ class CustomerRepositoryTest {
     void findCustomerByLastNameFail() {
         assertThat(customerRepository.findByLastName("notExisting").isPresent()).isFalse();
     }
+
+    @Test
+    void findCustomerByAmbiguousLastNameFail() {
+        customerRepository.save(new Customer("Jane", "Sarstedt", Gender.FEMALE));
+
+        assertThatExceptionOfType(AmbiguousLastNameException.class)
+                .isThrownBy(() -> customerRepository.findByLastName("Sarstedt"));
+    }
 }
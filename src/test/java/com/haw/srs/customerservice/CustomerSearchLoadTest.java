@@ -0,0 +1,125 @@
+package com.haw.srs.customerservice;
+
+import com.haw.srs.customerservice.Repo.CustomerView;
+import com.haw.srs.customerservice.Service.CustomerFilter;
+import com.haw.srs.customerservice.Service.CustomerService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Search latency on {@value #CUSTOMERS} customers, each enrolled in one of {@value #COURSES} courses. Every filter
+ * has to answer a page in under 10ms at the 95th percentile. Run with {@code ./gradlew loadTest}.
+ */
+@Tag("load")
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = Application.class, webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "customerservice.mail.outbox.poll-interval=PT1H")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CustomerSearchLoadTest {
+
+    private static final int CUSTOMERS = 1_000_000;
+    private static final int COURSES = 1000;
+    private static final int BATCH = 10_000;
+    // far above the ids handed out by hibernate, seeded rows must not collide with them
+    private static final long FIRST_ID = 1_000_000_000L;
+    private static final int WARMUP = 200;
+    private static final int QUERIES = 1000;
+    private static final Pageable PAGE = PageRequest.ofSize(20);
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void seed() {
+        List<Object[]> courses = new ArrayList<>(COURSES);
+        for (int i = 0; i < COURSES; i++) {
+            courses.add(new Object[]{FIRST_ID + i, "Load Course " + i});
+        }
+        jdbcTemplate.batchUpdate("insert into course (id, name) values (?, ?)", courses);
+
+        Gender[] genders = Gender.values();
+        List<Object[]> customers = new ArrayList<>(BATCH);
+        List<Object[]> memberships = new ArrayList<>(BATCH);
+        for (int i = 0; i < CUSTOMERS; i++) {
+            long id = FIRST_ID + i;
+            customers.add(new Object[]{id, "First" + i, "Last" + i, genders[i % genders.length].name(), "customer" + i + "@dummy.org"});
+            memberships.add(new Object[]{id, FIRST_ID + i % COURSES});
+            if (customers.size() == BATCH) {
+                flush(customers, memberships);
+            }
+        }
+        flush(customers, memberships);
+    }
+
+    private void flush(List<Object[]> customers, List<Object[]> memberships) {
+        jdbcTemplate.batchUpdate("insert into customer (id, first_name, last_name, gender, email) values (?, ?, ?, ?, ?)", customers);
+        jdbcTemplate.batchUpdate("insert into customer_courses (customer_id, course_id) values (?, ?)", memberships);
+        customers.clear();
+        memberships.clear();
+    }
+
+    static Stream<Arguments> filters() {
+        return Stream.of(
+                // 5 digit prefixes match 11 customers (e.g. Last12345, Last123450 to Last123459)
+                filter("last name prefix", i -> new CustomerFilter("Last" + (10_000 + i % 90_000), null, null, null, null)),
+                filter("first name prefix", i -> new CustomerFilter(null, "First" + (10_000 + i % 90_000), null, null, null)),
+                filter("email", i -> new CustomerFilter(null, null, "customer" + i + "@dummy.org", null, null)),
+                filter("gender", i -> new CustomerFilter(null, null, null, Gender.values()[i % 4], null)),
+                filter("course", i -> new CustomerFilter(null, null, null, null, FIRST_ID + i % COURSES)),
+                // all members of a course have the same gender, as COURSES is a multiple of the number of genders
+                filter("course and gender", i -> new CustomerFilter(null, null, null, Gender.values()[i % 4], FIRST_ID + i % COURSES)),
+                // 4 digit prefixes match 111 customers
+                filter("last name prefix and gender", i -> new CustomerFilter("Last" + (1000 + i % 9000), null, null, Gender.FEMALE, null)));
+    }
+
+    private static Arguments filter(String name, IntFunction<CustomerFilter> filter) {
+        return Arguments.of(name, filter);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("filters")
+    void searchAnswersWithinTenMilliseconds(String name, IntFunction<CustomerFilter> filter) {
+        for (int i = 0; i < WARMUP; i++) {
+            customerService.searchCustomers(filter.apply(ThreadLocalRandom.current().nextInt(CUSTOMERS)), 0L, PAGE);
+        }
+
+        long[] latencies = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            CustomerFilter next = filter.apply(ThreadLocalRandom.current().nextInt(CUSTOMERS));
+            long start = System.nanoTime();
+            List<CustomerView> page = customerService.searchCustomers(next, 0L, PAGE);
+            latencies[i] = System.nanoTime() - start;
+            assertThat(page).isNotEmpty();
+        }
+
+        Arrays.sort(latencies);
+        double p50 = latencies[QUERIES / 2] / 1e6;
+        double p95 = latencies[QUERIES * 95 / 100] / 1e6;
+        double p99 = latencies[QUERIES * 99 / 100] / 1e6;
+        System.out.printf("%s on %d customers: p50=%.2fms p95=%.2fms p99=%.2fms%n", name, CUSTOMERS, p50, p95, p99);
+        assertThat(p95).isLessThan(10.0);
+    }
+}
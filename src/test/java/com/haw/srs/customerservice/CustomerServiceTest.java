@@ -1,5 +1,6 @@
 package com.haw.srs.customerservice;
 
+import com.haw.srs.customerservice.Exception.CustomerAlreadyExistingException;
 import com.haw.srs.customerservice.Repo.CustomerRepository;
 import com.haw.srs.customerservice.Service.CustomerService;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,6 +13,7 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 
 @ExtendWith(SpringExtension.class)
 @SpringBootTest(classes = Application.class, webEnvironment = SpringBootTest.WebEnvironment.NONE)
@@ -39,4 +41,21 @@ class CustomerServiceTest {
         assertThat(actual).size().isEqualTo(1);
         assertThat(actual.get(0).getFirstName()).isEqualTo("Jane");
     }
+
+    @Test
+    void createCustomerSuccess() throws CustomerAlreadyExistingException {
+        Customer customer = customerService.createCustomer("Jane", "Doe", Gender.FEMALE);
+
+        assertThat(customer.getId()).isNotNull();
+        assertThat(customerRepository.existsByLastName("Doe")).isTrue();
+    }
+
+    @Test
+    void createCustomerFailBecauseOfExistingLastName() {
+        customerRepository.save(new Customer("Jane", "Doe", Gender.FEMALE));
+
+        assertThatExceptionOfType(CustomerAlreadyExistingException.class)
+                .isThrownBy(() -> customerService.createCustomer("John", "Doe", Gender.MALE))
+                .withMessageContaining("Customer with name Doe does already exist.");
+    }
 }
\ No newline at end of file
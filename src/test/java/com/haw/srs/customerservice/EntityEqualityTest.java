@@ -0,0 +1,80 @@
+package com.haw.srs.customerservice;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EntityEqualityTest {
+
+    @Test
+    void coursesWithSameIdAreEqual() {
+        Course course = course(1L, "Software Engineering 1");
+        Course sameId = course(1L, "renamed");
+
+        assertThat(course).isEqualTo(sameId).hasSameHashCodeAs(sameId);
+        assertThat(course).isNotEqualTo(course(2L, "Software Engineering 1"));
+    }
+
+    @Test
+    void unsavedEntitiesAreOnlyEqualToThemselves() {
+        Course course = new Course("Software Engineering 1");
+
+        assertThat(course).isEqualTo(course);
+        assertThat(course).isNotEqualTo(new Course("Software Engineering 1"));
+        assertThat(new Customer("Jane", "Doe", Gender.FEMALE)).isNotEqualTo(new Customer("Jane", "Doe", Gender.FEMALE));
+    }
+
+    @Test
+    void hashCodeDoesNotDependOnTheCollections() {
+        Customer customer = new Customer("Jane", "Doe", Gender.FEMALE);
+        customer.setId(1L);
+        Course course = course(1L, "Software Engineering 1");
+        int customerHash = customer.hashCode();
+        int courseHash = course.hashCode();
+
+        customer.addCourse(course);
+
+        assertThat(customer.hashCode()).isEqualTo(customerHash);
+        assertThat(course.hashCode()).isEqualTo(courseHash);
+        assertThat(course.getCustomers()).containsExactly(customer);
+        // toString must not recurse over the bidirectional association
+        assertThat(customer.toString()).contains("Software Engineering 1");
+    }
+
+    @Test
+    void membershipIsCheckedById() {
+        Customer customer = new Customer("Jane", "Doe", Gender.FEMALE);
+        customer.setId(1L);
+        customer.addCourse(course(1L, "Software Engineering 1"));
+        customer.addCourse(course(1L, "Software Engineering 1"));
+
+        assertThat(customer.getCourses()).hasSize(1).contains(course(1L, "other name"));
+
+        customer.removeCourse(course(1L, "other name"));
+
+        assertThat(customer.getCourses()).isEmpty();
+    }
+
+    @Test
+    void savedEntitiesCanBeFoundInHashSets() {
+        Set<Customer> customers = new HashSet<>();
+        for (long id = 1; id <= 1000; id++) {
+            Customer customer = new Customer("Jane", "Doe" + id, Gender.FEMALE);
+            customer.setId(id);
+            customers.add(customer);
+        }
+        Customer probe = new Customer();
+        probe.setId(500L);
+
+        assertThat(customers).hasSize(1000).contains(probe);
+    }
+
+    private static Course course(Long id, String name) {
+        Course course = new Course(name);
+        course.setId(id);
+        return course;
+    }
+}
@@ -0,0 +1,101 @@
+package com.haw.srs.customerservice;
+
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessagePreparator;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory mail sender for tests. Records every sent message and can be told to fail the next sends.
+ */
+class FakeMailSender implements JavaMailSender {
+
+    private final List<SimpleMailMessage> sent = new ArrayList<>();
+    private int batches;
+    private int failingSends;
+    private Runnable beforeNextSend;
+
+    synchronized List<SimpleMailMessage> getSent() {
+        return new ArrayList<>(sent);
+    }
+
+    synchronized int getBatches() {
+        return batches;
+    }
+
+    synchronized void failNextSends(int count) {
+        this.failingSends = count;
+    }
+
+    // e.g. to let the lease of the sending dispatcher run out while it sends
+    synchronized void beforeNextSend(Runnable action) {
+        this.beforeNextSend = action;
+    }
+
+    synchronized void reset() {
+        sent.clear();
+        batches = 0;
+        failingSends = 0;
+        beforeNextSend = null;
+    }
+
+    @Override
+    public synchronized void send(SimpleMailMessage simpleMessage) {
+        send(new SimpleMailMessage[]{simpleMessage});
+    }
+
+    @Override
+    public synchronized void send(SimpleMailMessage... simpleMessages) {
+        batches++;
+        if (beforeNextSend != null) {
+            Runnable action = beforeNextSend;
+            beforeNextSend = null;
+            action.run();
+        }
+        if (failingSends > 0) {
+            failingSends--;
+            Map<Object, Exception> failed = new LinkedHashMap<>();
+            Arrays.stream(simpleMessages).forEach(message -> failed.put(message, new IllegalStateException("mail server unavailable")));
+            throw new MailSendException(failed);
+        }
+        sent.addAll(Arrays.asList(simpleMessages));
+    }
+
+    @Override
+    public MimeMessage createMimeMessage() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public MimeMessage createMimeMessage(InputStream contentStream) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void send(MimeMessage mimeMessage) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void send(MimeMessage... mimeMessages) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void send(MimeMessagePreparator mimeMessagePreparator) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void send(MimeMessagePreparator... mimeMessagePreparators) {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,141 @@
+package com.haw.srs.customerservice;
+
+import com.haw.srs.customerservice.Repo.CourseRepository;
+import com.haw.srs.customerservice.Repo.CustomerRepository;
+import com.haw.srs.customerservice.Service.CourseService;
+import com.haw.srs.customerservice.Service.ParticipantCountService;
+import io.restassured.RestAssured;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static io.restassured.RestAssured.when;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasSize;
+
+/**
+ * Counts the SQL statements per read endpoint, so that an N+1 select or a fetch cascading over the
+ * customer/course graph fails the build.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = Application.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.jpa.properties.hibernate.generate_statistics=true",
+                // keep the outbox poller from adding statements while counting
+                "customerservice.mail.outbox.poll-interval=PT1H"})
+class FetchPlanTest {
+
+    private static final int CUSTOMERS = 5;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private ParticipantCountService participantCountService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+
+    private Customer customer;
+
+    private Course course;
+
+    @BeforeEach
+    void setUp() {
+        customerRepository.deleteAll();
+        courseRepository.deleteAll();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Course> courses = Stream.of("Mathe", "Physik", "Informatik")
+                    .map(name -> courseService.createCourse(new Course(name)))
+                    .toList();
+            for (int i = 0; i < CUSTOMERS; i++) {
+                customer = customerRepository.save(new Customer("Jane", "Doe" + i, Gender.FEMALE));
+                courses.forEach(customer::addCourse);
+            }
+            courses.forEach(enrolled -> participantCountService.add(enrolled.getId(), CUSTOMERS));
+            course = courses.get(0);
+        });
+
+        // count against a cold second-level cache
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        RestAssured.port = port;
+        RestAssured.basePath = "";
+    }
+
+    @Test
+    void getCustomersLoadsPageAndCoursesOnly() {
+        when().get("/customers").then().statusCode(HttpStatus.OK.value()).body("", hasSize(CUSTOMERS));
+
+        // one statement for the ids of the page, one for the customers of the page joined with their courses
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        // read projections, no entity is materialized
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void streamCustomersLoadsEachBatchOnce() {
+        when().get("/customers/stream").then().statusCode(HttpStatus.OK.value());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void getCustomerLoadsCustomerWithCoursesInOneStatement() {
+        when().get("/customers/{id}", customer.getId()).then().statusCode(HttpStatus.OK.value())
+                .body("courses", hasSize(3));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void getCoursesDoesNotLoadCustomers() {
+        when().get("/courses").then().statusCode(HttpStatus.OK.value()).body("", hasSize(3))
+                .body("anzahlTeilnehmer", everyItem(equalTo(CUSTOMERS)));
+
+        // the page joined with the materialized participant counts
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+    }
+
+    @Test
+    void getCourseDoesNotLoadCustomers() {
+        when().get("/courses/{id}", course.getId()).then().statusCode(HttpStatus.OK.value())
+                .body("anzahlTeilnehmer", equalTo(CUSTOMERS));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+    }
+}
@@ -0,0 +1,86 @@
+package com.haw.srs.customerservice;
+
+import com.haw.srs.customerservice.Repo.CourseRepository;
+import com.haw.srs.customerservice.Repo.EnrollmentRequestRepository;
+import com.haw.srs.customerservice.Service.BulkEnrollmentResult;
+import com.haw.srs.customerservice.Service.EnrollmentResult;
+import com.haw.srs.customerservice.Service.IdempotentEnrollmentService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotentEnrollmentTest extends ConcurrentEnrollmentTestSupport {
+
+    private static final int CUSTOMERS = 200;
+    private static final int RETRIES = 8;
+
+    @Autowired
+    private IdempotentEnrollmentService idempotentEnrollmentService;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private EnrollmentRequestRepository enrollmentRequestRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        enrollmentRequestRepository.deleteAll();
+        seedCustomers(CUSTOMERS, i -> new Customer("Jane", "Retry" + i, Gender.FEMALE));
+    }
+
+    @Test
+    void concurrentDuplicateSubmissionsEnrollOnce() throws Exception {
+        Long courseId = courseService.createCourse(new Course("Popular Course")).getId();
+
+        // every customer's enrollment is submitted several times with its key, all at once
+        List<Callable<EnrollmentResult>> submissions = new ArrayList<>();
+        for (int i = 0; i < CUSTOMERS; i++) {
+            String key = UUID.randomUUID().toString();
+            String lastName = "Retry" + i;
+            for (int retry = 0; retry < RETRIES; retry++) {
+                submissions.add(() -> idempotentEnrollmentService.enroll(key, courseId, lastName));
+            }
+        }
+
+        List<EnrollmentResult> results = runConcurrently(submissions);
+
+        // each key was executed exactly once, all retries got the original result
+        assertThat(results).filteredOn(result -> !result.replayed()).hasSize(CUSTOMERS);
+        assertThat(results).filteredOn(EnrollmentResult::replayed).hasSize(CUSTOMERS * (RETRIES - 1));
+        assertThat(results).extracting(EnrollmentResult::status).containsOnly(BulkEnrollmentResult.Status.ENROLLED);
+        assertThat(enrollmentRequestRepository.count()).isEqualTo(CUSTOMERS);
+
+        assertParticipants(courseId, CUSTOMERS);
+    }
+
+    @Test
+    void replayIsAnsweredFromDatabaseAfterRestart() throws Exception {
+        Long courseId = courseService.createCourse(new Course("Popular Course")).getId();
+        String key = UUID.randomUUID().toString();
+        idempotentEnrollmentService.enroll(key, courseId, "Retry0");
+
+        // a fresh instance has an empty cache, as after a restart or on another node
+        IdempotentEnrollmentService restarted = new IdempotentEnrollmentService(courseService, courseRepository,
+                enrollmentRequestRepository, transactionTemplate, new SimpleMeterRegistry(), 10, Duration.ofHours(1));
+
+        EnrollmentResult replay = restarted.enroll(key, courseId, "Retry0");
+
+        assertThat(replay.replayed()).isTrue();
+        assertThat(replay.status()).isEqualTo(BulkEnrollmentResult.Status.ENROLLED);
+        assertThat(participantCountService.of(courseId)).isEqualTo(1);
+    }
+}
@@ -0,0 +1,209 @@
+package com.haw.srs.customerservice;
+
+import com.haw.srs.customerservice.Repo.CustomerRepository;
+import com.haw.srs.customerservice.Repo.MailOutboxRepository;
+import com.haw.srs.customerservice.Service.CourseService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = Application.class, webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "customerservice.mail.outbox.poll-interval=PT1H",
+        "customerservice.mail.outbox.batch-size=2",
+        "customerservice.mail.outbox.max-attempts=2",
+        // the gauges count on every read
+        "customerservice.mail.outbox.gauge-max-age=PT0S"})
+@Import(MailOutboxTest.FakeMailConfiguration.class)
+class MailOutboxTest {
+
+    @TestConfiguration
+    static class FakeMailConfiguration {
+
+        @Bean
+        FakeMailSender fakeMailSender() {
+            return new FakeMailSender();
+        }
+    }
+
+    @Autowired
+    private FakeMailSender mailSender;
+
+    @Autowired
+    private MailOutboxDispatcher dispatcher;
+
+    @Autowired
+    private MailOutboxRepository mailOutboxRepository;
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        mailOutboxRepository.deleteAll();
+        customerRepository.deleteAll();
+        mailSender.reset();
+    }
+
+    @Test
+    void cancelMembershipQueuesMailThatIsSentAfterCommit() throws Exception {
+        Customer customer = customerRepository.save(new Customer("Max", "Mustermann", Gender.MALE, "max.must@mail.com", null));
+        Course course = new Course("Informationssysteme 2");
+        courseService.enrollInCourse(customer.getLastName(), course);
+
+        courseService.cancelMembership(customer.getId(), course.getId());
+
+        assertThat(mailSender.getSent()).isEmpty();
+        assertThat(meterRegistry.get("mail.outbox.depth").gauge().value()).isEqualTo(1.0);
+
+        dispatcher.dispatch();
+
+        assertThat(mailSender.getSent()).extracting(mail -> mail.getTo()[0]).containsExactly("max.must@mail.com");
+        assertThat(mailOutboxRepository.count()).isZero();
+        assertThat(meterRegistry.get("mail.outbox.depth").gauge().value()).isZero();
+    }
+
+    @Test
+    void dispatcherSendsInBatches() {
+        IntStream.range(0, 5).forEach(i ->
+                mailOutboxRepository.save(new MailOutboxMessage("customer" + i + "@dummy.org", "subject", "text")));
+
+        dispatcher.dispatch();
+
+        assertThat(mailSender.getSent()).hasSize(5);
+        assertThat(mailSender.getBatches()).isEqualTo(3);
+    }
+
+    @Test
+    void failedMailIsRetriedAfterBackoff() {
+        mailOutboxRepository.save(new MailOutboxMessage("max.must@mail.com", "subject", "text"));
+        mailSender.failNextSends(1);
+
+        dispatcher.dispatch();
+
+        MailOutboxMessage retried = mailOutboxRepository.findAll().get(0);
+        assertThat(mailSender.getSent()).isEmpty();
+        assertThat(retried.getStatus()).isEqualTo(MailStatus.PENDING);
+        assertThat(retried.getAttempts()).isEqualTo(1);
+        assertThat(retried.getNextAttemptAt()).isAfter(Instant.now());
+
+        // not due yet
+        dispatcher.dispatch();
+        assertThat(mailSender.getBatches()).isEqualTo(1);
+
+        retried.setNextAttemptAt(Instant.now());
+        mailOutboxRepository.save(retried);
+        dispatcher.dispatch();
+
+        assertThat(mailSender.getSent()).hasSize(1);
+        assertThat(mailOutboxRepository.count()).isZero();
+    }
+
+    @Test
+    void mailIsGivenUpAfterMaxAttempts() {
+        mailOutboxRepository.save(new MailOutboxMessage("max.must@mail.com", "subject", "text"));
+        mailSender.failNextSends(2);
+
+        dispatcher.dispatch();
+        MailOutboxMessage retried = mailOutboxRepository.findAll().get(0);
+        retried.setNextAttemptAt(Instant.now());
+        mailOutboxRepository.save(retried);
+        dispatcher.dispatch();
+
+        MailOutboxMessage failed = mailOutboxRepository.findAll().get(0);
+        assertThat(failed.getStatus()).isEqualTo(MailStatus.FAILED);
+        assertThat(failed.getAttempts()).isEqualTo(2);
+        assertThat(meterRegistry.get("mail.outbox.dead").gauge().value()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("mail.outbox.depth").gauge().value()).isZero();
+    }
+
+    @Test
+    void concurrentDispatchersSendEveryMailOnce() throws Exception {
+        IntStream.range(0, 40).forEach(i ->
+                mailOutboxRepository.save(new MailOutboxMessage("customer" + i + "@dummy.org", "subject", "text")));
+
+        // the dispatcher keeps no state of its own, two threads behave like two instances sharing the outbox
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<Object>> dispatchers = executor.invokeAll(List.of(
+                    () -> { dispatcher.dispatch(); return null; },
+                    () -> { dispatcher.dispatch(); return null; }));
+            for (Future<Object> future : dispatchers) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(mailSender.getSent()).extracting(mail -> mail.getTo()[0]).hasSize(40).doesNotHaveDuplicates();
+        assertThat(mailOutboxRepository.count()).isZero();
+    }
+
+    @Test
+    void failedMailIsNotRescheduledOnceAnotherDispatcherClaimedIt() {
+        MailOutboxMessage message = mailOutboxRepository.save(new MailOutboxMessage("max.must@mail.com", "subject", "text"));
+        mailSender.failNextSends(1);
+        mailSender.beforeNextSend(() -> {
+            // the lease ran out while sending, another instance claims the message
+            Instant later = Instant.now().plus(Duration.ofMinutes(10));
+            transactionTemplate.executeWithoutResult(status ->
+                    mailOutboxRepository.claim(List.of(message.getId()), "other-instance", later, later.plus(Duration.ofMinutes(5))));
+        });
+
+        dispatcher.dispatch();
+
+        MailOutboxMessage claimed = mailOutboxRepository.findById(message.getId()).orElseThrow();
+        assertThat(claimed.getClaimedBy()).isEqualTo("other-instance");
+        assertThat(claimed.getStatus()).isEqualTo(MailStatus.SENDING);
+        assertThat(claimed.getAttempts()).isZero();
+    }
+
+    @Test
+    void mailClaimedByAnotherDispatcherIsOnlySentAfterItsLeaseRanOut() {
+        MailOutboxMessage message = mailOutboxRepository.save(new MailOutboxMessage("max.must@mail.com", "subject", "text"));
+        Instant now = Instant.now();
+        transactionTemplate.executeWithoutResult(status ->
+                mailOutboxRepository.claim(List.of(message.getId()), "other-instance", now, now.plus(Duration.ofMinutes(5))));
+
+        dispatcher.dispatch();
+        assertThat(mailSender.getSent()).isEmpty();
+        assertThat(meterRegistry.get("mail.outbox.depth").gauge().value()).isEqualTo(1.0);
+
+        // the other instance died while sending
+        MailOutboxMessage claimed = mailOutboxRepository.findById(message.getId()).orElseThrow();
+        assertThat(claimed.getStatus()).isEqualTo(MailStatus.SENDING);
+        claimed.setNextAttemptAt(Instant.now());
+        mailOutboxRepository.save(claimed);
+        dispatcher.dispatch();
+
+        assertThat(mailSender.getSent()).hasSize(1);
+        assertThat(mailOutboxRepository.count()).isZero();
+    }
+}
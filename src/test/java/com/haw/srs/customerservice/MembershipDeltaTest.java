@@ -0,0 +1,189 @@
+package com.haw.srs.customerservice;
+
+import com.haw.srs.customerservice.Exception.CourseFullException;
+import com.haw.srs.customerservice.Exception.CourseIdMissingException;
+import com.haw.srs.customerservice.Exception.CourseNotFoundException;
+import com.haw.srs.customerservice.Exception.CustomerNotFoundException;
+import com.haw.srs.customerservice.Exception.MembershipMailNotSent;
+import com.haw.srs.customerservice.Exception.PreconditionFailedException;
+import com.haw.srs.customerservice.Repo.CourseRepository;
+import com.haw.srs.customerservice.Repo.CustomerRepository;
+import com.haw.srs.customerservice.Service.CourseService;
+import com.haw.srs.customerservice.Service.CustomerPatch;
+import com.haw.srs.customerservice.Service.CustomerService;
+import com.haw.srs.customerservice.Service.ParticipantCountService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Changing one membership must only touch its row in customer_courses, never delete and re-insert the whole
+ * collection of the customer. Likewise an update of a customer only writes the columns that changed.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = Application.class, webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {
+                "spring.jpa.properties.hibernate.generate_statistics=true",
+                "customerservice.mail.outbox.poll-interval=PT1H"})
+class MembershipDeltaTest {
+
+    private static final int COURSES = 50;
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private ParticipantCountService participantCountService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Customer customer;
+
+    private List<Course> courses;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() throws CourseNotFoundException {
+        customerRepository.deleteAll();
+        courseRepository.deleteAll();
+
+        customer = customerRepository.save(new Customer("Jane", "Doe", Gender.FEMALE, "jane.doe@dummy.org", null));
+        courses = new ArrayList<>();
+        for (int i = 0; i < COURSES; i++) {
+            courses.add(courseRepository.save(new Course("Course" + i)));
+        }
+        for (Course course : courses.subList(0, COURSES - 1)) {
+            courseService.enrollAllInCourse(course.getId(), List.of(customer.getId()), List.of());
+        }
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void enrollInCourseInsertsOnlyTheNewMembership() throws CustomerNotFoundException {
+        Course course = new Course();
+        course.setId(courses.get(COURSES - 1).getId());
+
+        courseService.enrollInCourse("Doe", course);
+
+        assertThat(statistics.getCollectionUpdateCount()).isEqualTo(1);
+        assertThat(statistics.getCollectionRecreateCount()).isZero();
+        assertThat(statistics.getCollectionRemoveCount()).isZero();
+        assertThat(customerRepository.findWithCoursesById(customer.getId()).orElseThrow().getCourses()).hasSize(COURSES);
+    }
+
+    @Test
+    void cancelMembershipDeletesOnlyThatMembership() throws CustomerNotFoundException, CourseNotFoundException, MembershipMailNotSent {
+        courseService.cancelMembership(customer.getId(), courses.get(0).getId());
+
+        assertThat(statistics.getCollectionUpdateCount()).isEqualTo(1);
+        assertThat(statistics.getCollectionRecreateCount()).isZero();
+        assertThat(statistics.getCollectionRemoveCount()).isZero();
+        assertThat(customerRepository.findWithCoursesById(customer.getId()).orElseThrow().getCourses())
+                .hasSize(COURSES - 2)
+                .doesNotContain(courses.get(0));
+    }
+
+    @Test
+    void enrollingDoesNotLoadTheCustomersOfTheCourse() throws CustomerNotFoundException {
+        Course course = new Course();
+        course.setId(courses.get(COURSES - 1).getId());
+
+        courseService.enrollInCourse("Doe", course);
+
+        assertThat(statistics.getCollectionStatistics(Course.class.getName() + ".customers").getLoadCount()).isZero();
+    }
+
+    @Test
+    void addingTheSameCourseTwiceKeepsOneMembership() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Customer managed = customerRepository.findWithCoursesById(customer.getId()).orElseThrow();
+            managed.addCourse(courseRepository.getReferenceById(courses.get(0).getId()));
+            managed.addCourse(courseRepository.findById(courses.get(0).getId()).orElseThrow());
+        });
+
+        assertThat(statistics.getCollectionUpdateCount()).isZero();
+        assertThat(customerRepository.findWithCoursesById(customer.getId()).orElseThrow().getCourses()).hasSize(COURSES - 1);
+    }
+
+    @Test
+    void patchingTheEmailUpdatesOnlyTheEmailColumn()
+            throws CustomerNotFoundException, CourseIdMissingException, CourseNotFoundException, CourseFullException,
+                   PreconditionFailedException {
+        CustomerPatch patch = new CustomerPatch();
+        patch.setEmail(Optional.of("jane@dummy.org"));
+
+        customerService.patchCustomer(customer.getId(), patch, null);
+
+        // the customer joined with its courses, then one update of the changed column
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(1);
+        assertThat(statistics.getCollectionUpdateCount()).isZero();
+        assertThat(statistics.getCollectionRecreateCount()).isZero();
+        assertThat(customerRepository.findById(customer.getId()).orElseThrow().getEmail()).isEqualTo("jane@dummy.org");
+    }
+
+    @Test
+    void patchingTheCoursesWritesOnlyTheDifference()
+            throws CustomerNotFoundException, CourseIdMissingException, CourseNotFoundException, CourseFullException,
+                   PreconditionFailedException {
+        List<Course> patched = new ArrayList<>(courses.subList(1, COURSES));
+        CustomerPatch patch = new CustomerPatch();
+        patch.setCourseIds(Optional.of(patched.stream().map(Course::getId).toList()));
+
+        customerService.patchCustomer(customer.getId(), patch, null);
+
+        // the customer row only gets its version incremented
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(1);
+        assertThat(statistics.getCollectionUpdateCount()).isEqualTo(1);
+        assertThat(statistics.getCollectionRecreateCount()).isZero();
+        assertThat(statistics.getCollectionRemoveCount()).isZero();
+        assertThat(customerRepository.findWithCoursesById(customer.getId()).orElseThrow().getCourses())
+                .containsExactlyInAnyOrderElementsOf(patched);
+        assertThat(participantCountService.of(courses.get(0).getId())).isZero();
+        assertThat(participantCountService.of(courses.get(COURSES - 1).getId())).isEqualTo(1);
+    }
+
+    @Test
+    void replacingTheCustomerKeepsUnchangedMemberships()
+            throws CustomerNotFoundException, CourseIdMissingException, CourseNotFoundException, CourseFullException,
+                   PreconditionFailedException {
+        Customer replacement = customerRepository.findWithCoursesById(customer.getId()).orElseThrow();
+        replacement.setFirstName("Janet");
+        statistics.clear();
+
+        customerService.patchCustomer(customer.getId(), CustomerPatch.replacing(replacement), null);
+
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(1);
+        assertThat(statistics.getCollectionUpdateCount()).isZero();
+        assertThat(statistics.getCollectionRecreateCount()).isZero();
+    }
+}
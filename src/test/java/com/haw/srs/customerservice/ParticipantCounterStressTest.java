@@ -0,0 +1,44 @@
+package com.haw.srs.customerservice;
+
+import com.haw.srs.customerservice.Repo.CourseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.stream.IntStream;
+
+class ParticipantCounterStressTest extends ConcurrentEnrollmentTestSupport {
+
+    private static final int CUSTOMERS = 2000;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @BeforeEach
+    void setUp() {
+        seedCustomers(CUSTOMERS, i -> new Customer("Jane", "Stress" + i, Gender.FEMALE));
+    }
+
+    @Test
+    void concurrentEnrollmentsIntoOneCourseLoseNoUpdates() throws Exception {
+        Long courseId = courseService.createCourse(new Course("Popular Course")).getId();
+
+        enrollAllConcurrently(courseId);
+
+        assertParticipants(courseId, CUSTOMERS);
+    }
+
+    @Test
+    void concurrentFirstEnrollmentsMaterializeTheCountOnce() throws Exception {
+        // saved directly, the count is only materialized by the first enrollment
+        Long courseId = courseRepository.save(new Course("Popular Course")).getId();
+
+        enrollAllConcurrently(courseId);
+
+        assertParticipants(courseId, CUSTOMERS);
+    }
+
+    private void enrollAllConcurrently(Long courseId) throws Exception {
+        runConcurrently(IntStream.range(0, CUSTOMERS).mapToObj(i -> enrollment(courseId, "Stress" + i)).toList());
+    }
+}
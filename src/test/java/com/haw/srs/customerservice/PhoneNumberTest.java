@@ -1,17 +1,26 @@
 package com.haw.srs.customerservice;
 
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 
 @ExtendWith(SpringExtension.class)
 @SpringBootTest(classes = Application.class, webEnvironment = SpringBootTest.WebEnvironment.NONE)
 class PhoneNumberTest {
 
+    // includes an arabic-indic digit, which \d does not match
+    private static final String ALPHABET = "+-0123456789 x\n\u0663";
+
     @ParameterizedTest
     @ValueSource(strings = {
             "+49-40-58967572",
@@ -27,11 +36,84 @@ class PhoneNumberTest {
             "+4-040-5896",
             "49-040-5896",
             "+49-0-5896",
-            "+49-040-896"
+            "+49-040-896",
+            "+49-0400-5896",
+            "+49-040-5896\n",
+            "+49-040-5896x",
+            "+49-04-",
+            "+\u0664\u0669-040-5896",
+            ""
     })
     void createPhoneNumberFail(String phoneNumber) {
         assertThatExceptionOfType(IllegalArgumentException.class)
                 .isThrownBy(() -> new PhoneNumber(phoneNumber))
                 .withMessageContaining("Invalid phone number");
     }
+
+    @Test
+    void createPhoneNumberSplitsParts() {
+        PhoneNumber phoneNumber = new PhoneNumber("+49-040-428758434");
+
+        assertThat(phoneNumber.getCountryCode()).isEqualTo("+49");
+        assertThat(phoneNumber.getAreaCode()).isEqualTo("040");
+        assertThat(phoneNumber.getSubscriberNumber()).isEqualTo("428758434");
+    }
+
+    @Test
+    void parserAgreesWithRegexOnRandomInput() {
+        Pattern pattern = Pattern.compile(PhoneNumber.PHONENUMBER_PATTERN);
+        // fixed seed, so a disagreement is reproducible
+        Random random = new Random(4711);
+
+        for (int i = 0; i < 200_000; i++) {
+            String candidate = i % 2 == 0 ? randomString(random) : mutatedValidNumber(random);
+            Matcher matcher = pattern.matcher(candidate);
+
+            assertThat(PhoneNumber.isValid(candidate)).as(candidate).isEqualTo(matcher.matches());
+            if (matcher.matches()) {
+                PhoneNumber phoneNumber = new PhoneNumber(candidate);
+                assertThat(phoneNumber.getCountryCode()).as(candidate).isEqualTo(matcher.group(1));
+                assertThat(phoneNumber.getAreaCode()).as(candidate).isEqualTo(matcher.group(2));
+                assertThat(phoneNumber.getSubscriberNumber()).as(candidate).isEqualTo(matcher.group(3));
+            } else {
+                assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> new PhoneNumber(candidate));
+            }
+        }
+    }
+
+    private static String randomString(Random random) {
+        StringBuilder candidate = new StringBuilder();
+        int length = random.nextInt(16);
+        for (int i = 0; i < length; i++) {
+            candidate.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return candidate.toString();
+    }
+
+    // valid numbers with a few random edits, to probe the boundaries of the format
+    private static String mutatedValidNumber(Random random) {
+        StringBuilder candidate = new StringBuilder("+")
+                .append(digits(random, 1 + random.nextInt(3))).append('-')
+                .append(digits(random, 1 + random.nextInt(4))).append('-')
+                .append(digits(random, 2 + random.nextInt(6)));
+        int edits = random.nextInt(3);
+        for (int i = 0; i < edits && candidate.length() > 0; i++) {
+            int position = random.nextInt(candidate.length());
+            char c = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+            switch (random.nextInt(3)) {
+                case 0 -> candidate.setCharAt(position, c);
+                case 1 -> candidate.insert(position, c);
+                default -> candidate.deleteCharAt(position);
+            }
+        }
+        return candidate.toString();
+    }
+
+    private static String digits(Random random, int count) {
+        StringBuilder digits = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            digits.append((char) ('0' + random.nextInt(10)));
+        }
+        return digits.toString();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,83 @@
+package com.haw.srs.customerservice;
+
+import com.haw.srs.customerservice.Exception.CustomerNotFoundException;
+import com.haw.srs.customerservice.Repo.CourseRepository;
+import com.haw.srs.customerservice.Repo.CustomerRepository;
+import com.haw.srs.customerservice.Service.CourseService;
+import io.restassured.RestAssured;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import static io.restassured.RestAssured.when;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.hamcrest.Matchers.*;
+
+// metrics export is switched off in tests unless asked for
+@AutoConfigureObservability
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = Application.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "customerservice.mail.outbox.poll-interval=PT1H")
+class PrometheusEndpointTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private CourseRepository courseRepository;
+    @Autowired
+    private CourseService courseService;
+
+    @BeforeEach
+    void setUp() {
+        customerRepository.deleteAll();
+        courseRepository.deleteAll();
+
+        RestAssured.port = port;
+        RestAssured.basePath = "";
+    }
+
+    @Test
+    void scrapeContainsServiceRepositoryPoolAndHibernateMeters() throws CustomerNotFoundException {
+        customerRepository.save(new Customer("Jane", "Doe", Gender.FEMALE));
+        courseService.enrollInCourse("Doe", new Course("Software Engineering 1"));
+
+        //@formatter:off
+        when().
+                get("/actuator/prometheus").
+        then().
+                statusCode(HttpStatus.OK.value()).
+                body(allOf(
+                        containsString("customerservice_service_seconds_bucket{application=\"customerservice\",class=\"com.haw.srs.customerservice.Service.CourseService\""),
+                        containsString("method=\"enrollInCourse\""),
+                        containsString("spring_data_repository_invocations_seconds_bucket"),
+                        containsString("course_enrollments_total"),
+                        containsString("mail_outbox_failed_total"),
+                        containsString("mail_outbox_dead"),
+                        containsString("hikaricp_connections_active"),
+                        containsString("hibernate_statements_total")));
+        //@formatter:on
+    }
+
+    @Test
+    void failedServiceCallIsTaggedWithException() {
+        assertThatExceptionOfType(CustomerNotFoundException.class)
+                .isThrownBy(() -> courseService.transferCourses("Unknown", "Nobody"));
+
+        //@formatter:off
+        when().
+                get("/actuator/prometheus").
+        then().
+                statusCode(HttpStatus.OK.value()).
+                body(containsString("exception=\"CustomerNotFoundException\""));
+        //@formatter:on
+    }
+}
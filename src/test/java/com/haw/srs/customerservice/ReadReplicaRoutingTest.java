@@ -0,0 +1,160 @@
+package com.haw.srs.customerservice;
+
+import com.haw.srs.customerservice.Exception.CustomerAlreadyExistingException;
+import com.haw.srs.customerservice.Repo.CourseRepository;
+import com.haw.srs.customerservice.Repo.CustomerRepository;
+import com.haw.srs.customerservice.Repo.CustomerView;
+import com.haw.srs.customerservice.Repo.EnrollmentRequestRepository;
+import com.haw.srs.customerservice.Service.BulkEnrollmentResult;
+import com.haw.srs.customerservice.Service.CourseService;
+import com.haw.srs.customerservice.Service.CustomerService;
+import com.haw.srs.customerservice.Service.EnrollmentResult;
+import com.haw.srs.customerservice.Service.IdempotentEnrollmentService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routing between two separate in-memory databases. Nothing replicates between them, so the data a read returns
+ * shows which one it came from; the heartbeat the replica would have received is written by the test.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = Application.class, webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {
+                "customerservice.datasource.replica.url=" + ReadReplicaRoutingTest.REPLICA_URL,
+                "customerservice.datasource.replica.username=sa",
+                "customerservice.datasource.replica.password=",
+                "customerservice.datasource.replica.max-lag=PT5S",
+                // checked by the test only, after it set the replica's heartbeat
+                "customerservice.datasource.replica.lag-check-interval=PT1H",
+                "customerservice.mail.outbox.poll-interval=PT1H"})
+class ReadReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replicadb;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private IdempotentEnrollmentService idempotentEnrollmentService;
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private EnrollmentRequestRepository enrollmentRequestRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @BeforeAll
+    static void createReplicaSchema() {
+        Flyway.configure()
+                .dataSource(REPLICA_URL, "sa", "")
+                .locations("classpath:db/migration/h2")
+                .placeholders(Map.of("id-allocation-size", "50"))
+                .load()
+                .migrate();
+    }
+
+    @BeforeEach
+    void setUp() {
+        customerRepository.deleteAll();
+        customerRepository.save(new Customer("Jane", "OnPrimary", Gender.FEMALE));
+
+        JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+        replica.update("delete from customer_courses");
+        replica.update("delete from customer");
+        replica.update("insert into customer (id, first_name, last_name, gender) values (1000000, 'Jane', 'OnReplica', 'FEMALE')");
+    }
+
+    @Test
+    void readOnlyTransactionsUseReplicaThatCaughtUp() throws CustomerAlreadyExistingException {
+        replicatedHeartbeat(Instant.now());
+        replicaLagMonitor.check();
+        assertThat(replicaLagMonitor.isReplicaUsable()).isTrue();
+
+        assertThat(customerService.findCustomerViews(0L, PageRequest.ofSize(10)))
+                .extracting(CustomerView::lastName)
+                .containsExactly("OnReplica");
+
+        // writes still go to the primary
+        customerService.createCustomer("John", "Written", Gender.MALE);
+        assertThat(new JdbcTemplate(primaryDataSource)
+                .queryForObject("select count(*) from customer where last_name = 'Written'", Integer.class)).isEqualTo(1);
+        assertThat(new JdbcTemplate(replicaDataSource)
+                .queryForObject("select count(*) from customer where last_name = 'Written'", Integer.class)).isZero();
+    }
+
+    @Test
+    void readOnlyTransactionsFallBackToPrimaryWhileReplicaLags() {
+        replicatedHeartbeat(Instant.now().minus(Duration.ofMinutes(1)));
+        replicaLagMonitor.check();
+        assertThat(replicaLagMonitor.isReplicaUsable()).isFalse();
+
+        assertThat(customerService.findCustomerViews(0L, PageRequest.ofSize(10)))
+                .extracting(CustomerView::lastName)
+                .containsExactly("OnPrimary");
+    }
+
+    @Test
+    void idempotencyReplayReadsKeyFromPrimaryWhileReplicaLags() throws Exception {
+        // within the tolerated lag, but the key written below never reaches the replica
+        replicatedHeartbeat(Instant.now());
+        replicaLagMonitor.check();
+        assertThat(replicaLagMonitor.isReplicaUsable()).isTrue();
+        Long courseId = courseService.createCourse(new Course("Replicated Course")).getId();
+        String key = UUID.randomUUID().toString();
+        idempotentEnrollmentService.enroll(key, courseId, "OnPrimary");
+
+        // another node, its cache does not know the key
+        IdempotentEnrollmentService otherNode = new IdempotentEnrollmentService(courseService, courseRepository,
+                enrollmentRequestRepository, transactionTemplate, new SimpleMeterRegistry(), 10, Duration.ofHours(1));
+        EnrollmentResult replay = otherNode.enroll(key, courseId, "OnPrimary");
+
+        assertThat(replay.replayed()).isTrue();
+        assertThat(replay.status()).isEqualTo(BulkEnrollmentResult.Status.ENROLLED);
+        assertThat(new JdbcTemplate(replicaDataSource)
+                .queryForObject("select count(*) from enrollment_request", Integer.class)).isZero();
+    }
+
+    private void replicatedHeartbeat(Instant beatAt) {
+        new JdbcTemplate(replicaDataSource).update("update replication_heartbeat set beat_at = ? where id = 1", Timestamp.from(beatAt));
+    }
+}
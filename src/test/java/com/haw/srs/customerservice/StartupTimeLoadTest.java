@@ -0,0 +1,95 @@
+package com.haw.srs.customerservice;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Startup time against a large, pre-populated file database in MySQL mode: {@value #CUSTOMERS} customers plus
+ * {@value #FOREIGN_TABLES} tables of other applications sharing the schema. Compares the former
+ * {@code ddl-auto=update} startup with the Flyway migrated schema that Hibernate only validates, and prints the
+ * median of {@value #STARTS} starts each. Run with {@code ./gradlew loadTest}.
+ */
+@Tag("load")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class StartupTimeLoadTest {
+
+    private static final int CUSTOMERS = 1_000_000;
+    private static final int FOREIGN_TABLES = 300;
+    private static final int BATCH = 10_000;
+    private static final int STARTS = 5;
+
+    @TempDir
+    static Path directory;
+
+    private String url;
+
+    @BeforeAll
+    void populate() {
+        url = "jdbc:h2:file:" + directory.resolve("startup") + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE";
+        try (ConfigurableApplicationContext context = start()) {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            List<Object[]> customers = new ArrayList<>(BATCH);
+            for (int i = 0; i < CUSTOMERS; i++) {
+                customers.add(new Object[]{1_000_000_000L + i, "First" + i, "Last" + i, "customer" + i + "@dummy.org"});
+                if (customers.size() == BATCH || i == CUSTOMERS - 1) {
+                    jdbcTemplate.batchUpdate("insert into customer (id, first_name, last_name, email) values (?, ?, ?, ?)", customers);
+                    customers.clear();
+                }
+            }
+            for (int i = 0; i < FOREIGN_TABLES; i++) {
+                jdbcTemplate.execute("create table foreign_table_" + i
+                        + " (id bigint primary key, name varchar(255), created timestamp, amount decimal(19, 2))");
+                jdbcTemplate.execute("create index idx_foreign_table_" + i + "_name on foreign_table_" + i + " (name)");
+            }
+        }
+    }
+
+    @Test
+    void validatedFlywaySchemaStartsFasterThanDdlUpdate() {
+        // the first start of each kind warms up class loading and is not counted
+        double update = medianStartup("--spring.flyway.enabled=false", "--spring.jpa.hibernate.ddl-auto=update");
+        double validate = medianStartup("--spring.flyway.enabled=true", "--spring.jpa.hibernate.ddl-auto=validate");
+
+        System.out.printf("%nstartup with %d customers and %d foreign tables: ddl-auto=update %.0fms, flyway + validate %.0fms%n",
+                CUSTOMERS, FOREIGN_TABLES, update, validate);
+        assertThat(validate).isPositive();
+    }
+
+    private double medianStartup(String... args) {
+        start(args).close();
+        long[] millis = new long[STARTS];
+        for (int i = 0; i < STARTS; i++) {
+            long start = System.nanoTime();
+            try (ConfigurableApplicationContext ignored = start(args)) {
+                millis[i] = (System.nanoTime() - start) / 1_000_000;
+            }
+        }
+        Arrays.sort(millis);
+        return millis[STARTS / 2];
+    }
+
+    private ConfigurableApplicationContext start(String... args) {
+        return new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.NONE)
+                .run(Stream.concat(
+                                Stream.of("--spring.datasource.url=" + url,
+                                        "--customerservice.mail.outbox.poll-interval=PT1H"),
+                                Stream.of(args))
+                        .toArray(String[]::new));
+    }
+}
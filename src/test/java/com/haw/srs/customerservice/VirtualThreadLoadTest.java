@@ -0,0 +1,134 @@
+package com.haw.srs.customerservice;
+
+import com.haw.srs.customerservice.Repo.CourseRepository;
+import com.haw.srs.customerservice.Repo.CustomerRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the REST facades with {@value #CLIENTS} concurrent clients, once with platform request threads and once with
+ * virtual request threads, and prints throughput and latency percentiles for the comparison. Excluded from the
+ * regular build, run with {@code ./gradlew loadTest}. In-memory H2 hardly blocks; for representative numbers run it
+ * against MySQL with {@code -Dspring.profiles.active=local}.
+ */
+@Tag("load")
+class VirtualThreadLoadTest {
+
+    private static final int CLIENTS = 2000;
+    private static final int REQUESTS_PER_CLIENT = 20;
+    private static final int CUSTOMERS = 10_000;
+    private static final int COURSES = 100;
+
+    @ParameterizedTest(name = "virtual threads: {0}")
+    @ValueSource(booleans = {false, true})
+    void burstOfConcurrentClients(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(Application.class).run(
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--customerservice.mail.outbox.poll-interval=PT1H")) {
+            List<Long> customerIds = seed(context);
+            Long courseId = context.getBean(CourseRepository.class).save(new Course("Load Test")).getId();
+            String baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+
+            long[] latencies = new long[CLIENTS * REQUESTS_PER_CLIENT];
+            AtomicInteger next = new AtomicInteger();
+            AtomicInteger errors = new AtomicInteger();
+
+            // the clients themselves are virtual threads in both runs, only the server side differs
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+                 HttpClient http = HttpClient.newBuilder()
+                         .executor(clients)
+                         .connectTimeout(Duration.ofSeconds(30))
+                         .build()) {
+                long start = System.nanoTime();
+                List<Future<?>> futures = new ArrayList<>(CLIENTS);
+                for (int client = 0; client < CLIENTS; client++) {
+                    futures.add(clients.submit(() -> {
+                        for (int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+                            HttpRequest request = nextRequest(baseUrl, customerIds, courseId, i);
+                            long sent = System.nanoTime();
+                            try {
+                                HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                                if (response.statusCode() >= 400) {
+                                    errors.incrementAndGet();
+                                }
+                            } catch (Exception ex) {
+                                errors.incrementAndGet();
+                            }
+                            latencies[next.getAndIncrement()] = System.nanoTime() - sent;
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+                report(virtualThreads, latencies, System.nanoTime() - start, errors.get());
+            }
+
+            assertThat(errors).hasValue(0);
+        }
+    }
+
+    private static HttpRequest nextRequest(String baseUrl, List<Long> customerIds, Long courseId, int i) {
+        Long customerId = customerIds.get(ThreadLocalRandom.current().nextInt(customerIds.size()));
+        HttpRequest.Builder request = HttpRequest.newBuilder().timeout(Duration.ofSeconds(60));
+        return switch (i % 4) {
+            case 0 -> request.uri(URI.create(baseUrl + "/courses/" + courseId + "/enrollments"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"customerIds\":[" + customerId + "]}"))
+                    .build();
+            case 1 -> request.uri(URI.create(baseUrl + "/courses?size=" + COURSES)).GET().build();
+            default -> request.uri(URI.create(baseUrl + "/customers/" + customerId)).GET().build();
+        };
+    }
+
+    private static List<Long> seed(ConfigurableApplicationContext context) {
+        CustomerRepository customerRepository = context.getBean(CustomerRepository.class);
+        CourseRepository courseRepository = context.getBean(CourseRepository.class);
+        List<Long> ids = new ArrayList<>(CUSTOMERS);
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < CUSTOMERS; i++) {
+            customers.add(new Customer("Jane", "Load" + i, Gender.FEMALE));
+        }
+        customerRepository.saveAll(customers).forEach(customer -> ids.add(customer.getId()));
+        List<Course> courses = new ArrayList<>();
+        for (int i = 0; i < COURSES; i++) {
+            courses.add(new Course("Load Course " + i));
+        }
+        courseRepository.saveAll(courses);
+        return ids;
+    }
+
+    private static void report(boolean virtualThreads, long[] latencies, long elapsed, int errors) {
+        Arrays.sort(latencies);
+        System.out.printf("%nvirtual threads=%s, %d clients, %d requests: %.0f req/s, p50=%.1fms p99=%.1fms p99.9=%.1fms max=%.1fms, %d errors%n",
+                virtualThreads, CLIENTS, latencies.length, latencies.length / (elapsed / 1e9),
+                percentile(latencies, 0.5), percentile(latencies, 0.99), percentile(latencies, 0.999),
+                latencies[latencies.length - 1] / 1e6, errors);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)] / 1e6;
+    }
+}
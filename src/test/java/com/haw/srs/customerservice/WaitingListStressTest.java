@@ -0,0 +1,58 @@
+package com.haw.srs.customerservice;
+
+import com.haw.srs.customerservice.Service.WaitingListService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WaitingListStressTest extends ConcurrentEnrollmentTestSupport {
+
+    private static final int CUSTOMERS = 2000;
+    private static final int CAPACITY = 100;
+    private static final int CANCELLATIONS = 50;
+
+    @Autowired
+    private WaitingListService waitingListService;
+
+    @BeforeEach
+    void setUp() {
+        seedCustomers(CUSTOMERS, i -> new Customer("Jane", "Waiting" + i, Gender.FEMALE, "waiting" + i + "@mail.com", null));
+    }
+
+    @Test
+    void concurrentEnrollmentsNeverOverbookAndCancellationsPromoteInOrder() throws Exception {
+        Course limited = new Course("Limited Course");
+        limited.setCapacity(CAPACITY);
+        Long courseId = courseService.createCourse(limited).getId();
+
+        runConcurrently(IntStream.range(0, CUSTOMERS).mapToObj(i -> enrollment(courseId, "Waiting" + i)).toList());
+
+        assertParticipants(courseId, CAPACITY);
+        List<Long> waiting = waitingListService.waitingCustomers(courseId);
+        assertThat(waiting).hasSize(CUSTOMERS - CAPACITY).doesNotHaveDuplicates();
+
+        List<String> lastNames = IntStream.range(0, CUSTOMERS).mapToObj(i -> "Waiting" + i).toList();
+        List<Long> members = customerRepository.findWithCoursesByLastNameIn(lastNames).stream()
+                .filter(customer -> !customer.getCourses().isEmpty())
+                .map(Customer::getId)
+                .limit(CANCELLATIONS)
+                .toList();
+        runConcurrently(members.stream()
+                .map(customerId -> (Callable<Void>) () -> {
+                    courseService.cancelMembership(customerId, courseId);
+                    return null;
+                })
+                .toList());
+
+        assertParticipants(courseId, CAPACITY);
+        // first come first served: exactly the customers that waited longest got the seats
+        assertThat(waitingListService.waitingCustomers(courseId))
+                .containsExactlyElementsOf(waiting.subList(CANCELLATIONS, waiting.size()));
+    }
+}